@@ -0,0 +1,134 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.auditing.AuditClock;
+import study.datajpa.auditing.AuditStamp;
+import study.datajpa.auditing.CoarseClock;
+import study.datajpa.configuration.AppConfiguration;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 감사 정보 (auditor, 시간) 비교
+ *
+ * <pre>
+ *     - legacy : 이전 방식 - UUID.randomUUID() (SecureRandom), LocalDateTime.now()
+ *     - auditor / clock : AuditorAware, 시간 만 측정 (Spring Context 없음)
+ *     - persistMembers : member 1000 명을 saveAllBatched 로 저장 (rollback) - 시간 방식 별
+ *        - exact : LocalDateTime.now(), coarse : CoarseClock, trusted : AuditStamp.trusted()
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AuditingBenchmark {
+
+  private static final LocalDateTime IMPORTED_AT = LocalDateTime.of(2021, 9, 1, 0, 0);
+
+  private final AuditorAware<String> auditorAware = new AppConfiguration().auditorProvider();
+  private final CoarseClock coarseClock = new CoarseClock(Duration.ofMillis(10));
+
+  @Benchmark
+  public String legacyAuditor() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String legacyAuditorContended() {
+    return UUID.randomUUID().toString();
+  }
+
+  @Benchmark
+  public Optional<String> auditor() {
+    return auditorAware.getCurrentAuditor();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public Optional<String> auditorContended() {
+    return auditorAware.getCurrentAuditor();
+  }
+
+  @Benchmark
+  public LocalDateTime legacyClock() {
+    return LocalDateTime.now();
+  }
+
+  @Benchmark
+  public LocalDateTime coarseClock() {
+    return coarseClock.get();
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.AverageTime)
+  @OutputTimeUnit(TimeUnit.MICROSECONDS)
+  public Integer persistMembers(Persistence persistence) {
+    return persistence.persist();
+  }
+
+  @State(Scope.Benchmark)
+  public static class Persistence {
+
+    private static final int MEMBERS = 1000;
+
+    @Param({"exact", "coarse", "trusted"})
+    private String mode;
+
+    private ConfigurableApplicationContext context;
+    private MemberRepository memberRepository;
+    private TransactionTemplate transactionTemplate;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+      context = BenchmarkApplication.start();
+      memberRepository = context.getBean(MemberRepository.class);
+      transactionTemplate =
+          new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+      // context 시작 시 설정된 clock (app.auditing.clock-resolution) 을 mode 에 맞게 바꾼다.
+      if ("exact".equals(mode)) {
+        AuditClock.use(LocalDateTime::now);
+      } else {
+        AuditClock.use(new CoarseClock(Duration.ofMillis(10)));
+      }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      context.close();
+    }
+
+    Integer persist() {
+      return transactionTemplate.execute(
+          status -> {
+            status.setRollbackOnly(); // 매번 같은 크기의 table 에 저장
+
+            List<Member> members = new ArrayList<>(MEMBERS);
+
+            for (int i = 0; i < MEMBERS; i++) {
+              members.add(new Member("audit" + i, i % 100));
+            }
+
+            if ("trusted".equals(mode)) {
+              return AuditStamp.trusted(
+                  "import-job", IMPORTED_AT, () -> memberRepository.saveAllBatched(members, 100));
+            }
+
+            return memberRepository.saveAllBatched(members, 100);
+          });
+    }
+  }
+}
@@ -0,0 +1,64 @@
+package study.datajpa.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.datajpa.DataJpaApplication;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Benchmark 용 Spring Context
+ *
+ * <pre>
+ *     - embedded H2 (memory) 를 사용한다. - application-benchmark.yml
+ *     - SQL 로그는 끈다. (로그 출력 비용이 측정값에 섞이지 않도록)
+ *     - TEAMS * MEMBERS_PER_TEAM 만큼 member 를 미리 넣어둔다.
+ * </pre>
+ */
+final class BenchmarkApplication {
+
+  static final int TEAMS = 10;
+  static final int MEMBERS_PER_TEAM = 100;
+
+  private BenchmarkApplication() {}
+
+  static ConfigurableApplicationContext start() {
+    ConfigurableApplicationContext context =
+        new SpringApplicationBuilder(DataJpaApplication.class)
+            .web(WebApplicationType.NONE)
+            .profiles("benchmark")
+            .run();
+
+    seed(context);
+
+    return context;
+  }
+
+  static String username(int index) {
+    return "member" + index;
+  }
+
+  private static void seed(ConfigurableApplicationContext context) {
+    TeamRepository teamRepository = context.getBean(TeamRepository.class);
+    MemberRepository memberRepository = context.getBean(MemberRepository.class);
+
+    List<Member> members = new ArrayList<>();
+
+    for (int t = 0; t < TEAMS; t++) {
+      Team team = teamRepository.save(new Team("team" + t));
+
+      for (int m = 0; m < MEMBERS_PER_TEAM; m++) {
+        int index = t * MEMBERS_PER_TEAM + m;
+        members.add(new Member(username(index), index % 100, team));
+      }
+    }
+
+    memberRepository.saveAllBatched(members, 100);
+  }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import study.datajpa.entity.CustomId;
+import study.datajpa.entity.SnowflakeIdGenerator;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ID 생성 비교
+ *
+ * <pre>
+ *     - legacy : 이전 CustomId.generate() - LocalDateTime, Base64, 정규식 사용
+ *     - 여러 thread 에서 동시에 생성하는 경우는 -t 옵션 (또는 @Threads) 으로 확인한다.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class CustomIdBenchmark {
+
+  private final SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+  @Benchmark
+  public String customId() {
+    return CustomId.generate();
+  }
+
+  @Benchmark
+  public long snowflakeLong() {
+    return generator.nextId();
+  }
+
+  @Benchmark
+  @Threads(4)
+  public String customIdContended() {
+    return CustomId.generate();
+  }
+
+  @Benchmark
+  public String legacy() {
+    LocalDateTime now = LocalDateTime.now();
+
+    long time = now.toInstant(ZoneOffset.UTC).toEpochMilli();
+
+    String s = Base64.getEncoder().encodeToString(String.valueOf(time).getBytes());
+
+    return s.replaceAll("[\\W]", "");
+  }
+}
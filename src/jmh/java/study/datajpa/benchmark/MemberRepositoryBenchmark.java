@@ -0,0 +1,127 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.UsernameOnlyDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberProjection;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.NestedClosedProjections;
+import study.datajpa.repository.UsernameOnly;
+import study.datajpa.repository.count.CountStrategy;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Repository 조회 방식 별 비교
+ *
+ * <pre>
+ *     - 같은 결과를 가져오는 query 들을 조회 방식(named query, @Query, DTO, projection ...) 별로 비교한다.
+ *     - fetch join vs entity graph 는 전체 member 를 team 과 같이 가져온다.
+ *     - page 조회는 member 200 명 - entity + DTO 변환 vs DtoMapper, native interface Projection vs DtoMapper
+ *     - readOnly vs plain 은 Transaction 안에서 조회 후 commit(flush) 까지 측정한다. - dirty checking 비용 포함
+ *     - benchmark profile 은 2차 cache, query cache 를 끈다. - 매번 DB 에서 조회하는 비용을 비교한다.
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MemberRepositoryBenchmark {
+
+  private ConfigurableApplicationContext context;
+  private MemberRepository memberRepository;
+  private TransactionTemplate transactionTemplate;
+
+  private final String username = BenchmarkApplication.username(500);
+  private final int age = 500 % 100;
+  private final PageRequest page = PageRequest.of(0, 200);
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    memberRepository = context.getBean(MemberRepository.class);
+    transactionTemplate = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Member> namedQuery() {
+    return memberRepository.findByUsername(username);
+  }
+
+  @Benchmark
+  public List<Member> query() {
+    return memberRepository.findUser(username, age);
+  }
+
+  @Benchmark
+  public List<MemberDto> dtoProjection() {
+    return memberRepository.findUserDto();
+  }
+
+  @Benchmark
+  public List<UsernameOnly> computedProjection() {
+    return memberRepository.findProjectionsByUsername(username);
+  }
+
+  @Benchmark
+  public List<UsernameOnlyDto> dynamicProjectionDto() {
+    return memberRepository.findProjections3ByUsername(username, UsernameOnlyDto.class);
+  }
+
+  @Benchmark
+  public List<NestedClosedProjections> dynamicProjectionNested() {
+    return memberRepository.findProjections3ByUsername(username, NestedClosedProjections.class);
+  }
+
+  @Benchmark
+  public Page<MemberDto> entityPage() {
+    return memberRepository.findAllCounted(page, CountStrategy.CACHED).map(MemberDto::new);
+  }
+
+  @Benchmark
+  public Page<MemberDto> dtoPage() {
+    return memberRepository.findMemberDtoPage(page, CountStrategy.CACHED);
+  }
+
+  @Benchmark
+  public Page<MemberProjection> nativeProjectionPage() {
+    return memberRepository.findProjectionsByNativeQuery(page);
+  }
+
+  @Benchmark
+  public Page<MemberDto> nativeDtoPage() {
+    return memberRepository.findMemberDtoPageByNativeQuery(page);
+  }
+
+  @Benchmark
+  public List<Member> fetchJoin() {
+    return memberRepository.findMemberFetchJoin();
+  }
+
+  @Benchmark
+  public List<Member> entityGraph() {
+    return memberRepository.findMemberEntityGraph();
+  }
+
+  @Benchmark
+  public Member plainFind() {
+    return transactionTemplate.execute(status -> memberRepository.findOneByUsername(username));
+  }
+
+  @Benchmark
+  public Member readOnlyFind() {
+    return transactionTemplate.execute(
+        status -> memberRepository.findReadOnlyByUsername(username));
+  }
+}
@@ -0,0 +1,72 @@
+package study.datajpa.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 읽기 전용 조회 비교 - 전체 member (1,000) + team
+ *
+ * <pre>
+ *     - plain : 읽기/쓰기 Transaction, hint 없음 - snapshot 생성 + commit 시 dirty checking
+ *     - readOnlyHint : 읽기/쓰기 Transaction 에 참여, @ReadOnlyQuery (org.hibernate.readOnly)
+ *     - readOnlyTransaction : @Transactional(readOnly = true) - FlushMode.MANUAL, read-only Session
+ *     - heap 사용량은 gc profiler 로 확인한다. - ./gradlew jmh -Pjmh.includes=ReadOnly -Pjmh.profilers=gc
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadOnlyBenchmark {
+
+  private static final String JPQL = "select m from Member m left join fetch m.team t";
+
+  private ConfigurableApplicationContext context;
+  private MemberRepository memberRepository;
+  private EntityManager em;
+
+  private TransactionTemplate transaction;
+  private TransactionTemplate readOnlyTransaction;
+
+  @Setup(Level.Trial)
+  public void setUp() {
+    context = BenchmarkApplication.start();
+    memberRepository = context.getBean(MemberRepository.class);
+    em = context.getBean(EntityManager.class);
+
+    PlatformTransactionManager transactionManager =
+        context.getBean(PlatformTransactionManager.class);
+
+    transaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+  }
+
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    context.close();
+  }
+
+  @Benchmark
+  public List<Member> plain() {
+    return transaction.execute(status -> em.createQuery(JPQL, Member.class).getResultList());
+  }
+
+  @Benchmark
+  public List<Member> readOnlyHint() {
+    return transaction.execute(status -> memberRepository.findMemberFetchJoin());
+  }
+
+  @Benchmark
+  public List<Member> readOnlyTransaction() {
+    return readOnlyTransaction.execute(
+        status -> em.createQuery(JPQL, Member.class).getResultList());
+  }
+}
@@ -0,0 +1,32 @@
+package study.datajpa.auditing;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 감사 시간 (createdDate, updatedDate ...) 을 만드는 곳
+ *
+ * <pre>
+ *     - Spring Data Auditing (AuditDateTimeProvider) 과 JPA callback (JpaBaseEntity) 이 같이 사용한다.
+ *        - JPA callback 은 entity 안에서 실행되므로 bean 을 주입받을 수 없어서, static 으로 둔다.
+ *     - AuditStamp.trusted() 안이면 고정된 시간을 사용한다.
+ *     - 기본은 LocalDateTime.now() - AppConfiguration 에서 CoarseClock 으로 바꾼다.
+ * </pre>
+ */
+public final class AuditClock {
+
+  private static volatile Supplier<LocalDateTime> clock = LocalDateTime::now;
+
+  private AuditClock() {}
+
+  public static LocalDateTime now() {
+    AuditStamp stamp = AuditStamp.current();
+
+    return stamp != null ? stamp.getTime() : clock.get();
+  }
+
+  public static void use(Supplier<LocalDateTime> clock) {
+    AuditClock.clock = Objects.requireNonNull(clock, "clock");
+  }
+}
@@ -0,0 +1,15 @@
+package study.datajpa.auditing;
+
+import org.springframework.data.auditing.DateTimeProvider;
+
+import java.time.temporal.TemporalAccessor;
+import java.util.Optional;
+
+/** Spring Data Auditing (@CreatedDate, @LastModifiedDate) 의 시간 - AuditClock */
+public class AuditDateTimeProvider implements DateTimeProvider {
+
+  @Override
+  public Optional<TemporalAccessor> getNow() {
+    return Optional.of(AuditClock.now());
+  }
+}
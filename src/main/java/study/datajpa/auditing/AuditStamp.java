@@ -0,0 +1,67 @@
+package study.datajpa.auditing;
+
+import java.time.LocalDateTime;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * 신뢰할 수 있는 대량 import 용 고정 감사 정보
+ *
+ * <pre>
+ *     - trusted() 안에서 저장 / 수정되는 entity 는 모두 같은 auditor, 시간으로 기록된다.
+ *     - auditor 조회, 현재 시간 계산을 entity 마다 하지 않는다.
+ *     - import 작업 한 번을 하나의 시점으로 기록하고 싶을 때 사용한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 현재 thread 에만 적용된다. - 다른 thread (async count 등) 에서 저장하는 entity 는 적용되지 않는다.
+ *     - 요청한 사용자를 그대로 기록해야 하는 작업에는 사용하면 안된다.
+ * </pre>
+ *
+ * <pre>{@code
+ * AuditStamp.trusted("import-job", LocalDateTime.now(), () ->
+ *     memberRepository.saveAllBatched(members, 100));
+ * }</pre>
+ */
+public final class AuditStamp {
+
+  private static final ThreadLocal<AuditStamp> CURRENT = new ThreadLocal<>();
+
+  private final String auditor;
+  private final LocalDateTime time;
+
+  private AuditStamp(String auditor, LocalDateTime time) {
+    this.auditor = Objects.requireNonNull(auditor, "auditor");
+    this.time = Objects.requireNonNull(time, "time");
+  }
+
+  public static <T> T trusted(String auditor, LocalDateTime time, Supplier<T> work) {
+    AuditStamp previous = CURRENT.get();
+    CURRENT.set(new AuditStamp(auditor, time));
+
+    try {
+      return work.get();
+    } finally {
+      if (previous == null) {
+        CURRENT.remove();
+      } else {
+        CURRENT.set(previous);
+      }
+    }
+  }
+
+  /** 현재 thread 의 고정 감사 정보 - 없으면 null */
+  public static AuditStamp current() {
+    return CURRENT.get();
+  }
+
+  public String getAuditor() {
+    return auditor;
+  }
+
+  public LocalDateTime getTime() {
+    return time;
+  }
+}
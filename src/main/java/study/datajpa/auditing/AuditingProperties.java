@@ -0,0 +1,20 @@
+package study.datajpa.auditing;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.auditing")
+public class AuditingProperties {
+
+  /** 감사 시간의 정밀도 - 이 시간 동안은 같은 시간을 사용한다. 0 이면 매번 LocalDateTime.now() */
+  private Duration clockResolution = Duration.ofMillis(10);
+
+  public Duration getClockResolution() {
+    return clockResolution;
+  }
+
+  public void setClockResolution(Duration clockResolution) {
+    this.clockResolution = clockResolution;
+  }
+}
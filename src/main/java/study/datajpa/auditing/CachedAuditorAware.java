@@ -0,0 +1,59 @@
+package study.datajpa.auditing;
+
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * 요청 (HTTP request) 마다 한 번만 auditor 를 조회하는 AuditorAware
+ *
+ * <pre>
+ *     - entity 를 저장 / 수정할 때마다 호출되므로, 한 요청에서 여러 entity 를 저장하면 같은 조회를 반복하게 된다.
+ *     - 첫 조회 결과를 request attribute 에 넣어두고, 같은 요청에서는 그 값을 사용한다.
+ *     - 요청 밖 (batch, test) 에서는 매번 resolver 를 호출한다.
+ *     - AuditStamp.trusted() 안이면 고정된 auditor 를 사용한다.
+ * </pre>
+ */
+public class CachedAuditorAware implements AuditorAware<String> {
+
+  private static final String ATTRIBUTE = CachedAuditorAware.class.getName() + ".AUDITOR";
+
+  private final Supplier<String> resolver;
+
+  /**
+   * @param resolver 현재 사용자 조회 - ex:) Security Context, Session
+   */
+  public CachedAuditorAware(Supplier<String> resolver) {
+    this.resolver = resolver;
+  }
+
+  @Override
+  public Optional<String> getCurrentAuditor() {
+    AuditStamp stamp = AuditStamp.current();
+
+    if (stamp != null) {
+      return Optional.of(stamp.getAuditor());
+    }
+
+    RequestAttributes request = RequestContextHolder.getRequestAttributes();
+
+    if (request == null) {
+      return Optional.ofNullable(resolver.get());
+    }
+
+    String auditor = (String) request.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+    if (auditor == null) {
+      auditor = resolver.get();
+
+      if (auditor != null) {
+        request.setAttribute(ATTRIBUTE, auditor, RequestAttributes.SCOPE_REQUEST);
+      }
+    }
+
+    return Optional.ofNullable(auditor);
+  }
+}
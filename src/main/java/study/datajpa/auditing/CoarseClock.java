@@ -0,0 +1,70 @@
+package study.datajpa.auditing;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.function.Supplier;
+
+/**
+ * resolution 단위로 cache 한 현재 시간
+ *
+ * <pre>
+ *     - LocalDateTime.now() 는 호출마다 time zone offset 계산 + 객체 생성을 한다.
+ *     - resolution 안에서는 같은 LocalDateTime 을 돌려준다. - 대량 insert 시 entity 마다 now() 를 만들지 않는다.
+ *     - 별도 thread 없이, 호출할 때 시간이 resolution 이상 지났으면 새로 만든다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - resolution 만큼 시간이 부정확하다. - 같은 resolution 안에서 저장된 entity 는 시간이 같다.
+ *     - 시간 순서 정렬 / 비교에 사용하는 값이면 resolution 을 작게 해야 한다.
+ * </pre>
+ */
+public class CoarseClock implements Supplier<LocalDateTime> {
+
+  private final long resolutionMillis;
+  private final ZoneId zone;
+
+  private volatile Tick tick;
+
+  public CoarseClock(Duration resolution) {
+    this(resolution, ZoneId.systemDefault());
+  }
+
+  public CoarseClock(Duration resolution, ZoneId zone) {
+    if (resolution.isNegative() || resolution.isZero()) {
+      throw new IllegalArgumentException("resolution must be greater than 0.");
+    }
+
+    this.resolutionMillis = resolution.toMillis();
+    this.zone = zone;
+    this.tick = new Tick(System.currentTimeMillis(), zone);
+  }
+
+  @Override
+  public LocalDateTime get() {
+    long millis = System.currentTimeMillis();
+    Tick tick = this.tick;
+
+    // 시계가 뒤로 간 경우에도 새로 만든다.
+    if (millis - tick.millis >= resolutionMillis || millis < tick.millis) {
+      tick = new Tick(millis, zone);
+      this.tick = tick;
+    }
+
+    return tick.time;
+  }
+
+  private static final class Tick {
+
+    private final long millis;
+    private final LocalDateTime time;
+
+    private Tick(long millis, ZoneId zone) {
+      this.millis = millis;
+      this.time = LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), zone);
+    }
+  }
+}
@@ -1,15 +1,25 @@
 package study.datajpa.configuration;
 
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.auditing.DateTimeProvider;
 import org.springframework.data.domain.AuditorAware;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import study.datajpa.auditing.AuditClock;
+import study.datajpa.auditing.AuditDateTimeProvider;
+import study.datajpa.auditing.AuditingProperties;
+import study.datajpa.auditing.CachedAuditorAware;
+import study.datajpa.auditing.CoarseClock;
 
-import java.util.Optional;
+import java.time.Duration;
+import java.time.LocalDateTime;
 import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Configuration
-@EnableJpaAuditing // ! JPA Auditing 기능 사용하 반드시 넣어야 한다.
+@EnableJpaAuditing(dateTimeProviderRef = "auditDateTimeProvider") // ! JPA Auditing 기능 사용하 반드시 넣어야 한다.
+@EnableConfigurationProperties(AuditingProperties.class)
 public class AppConfiguration {
 
   /**
@@ -20,6 +30,7 @@ public class AppConfiguration {
    * <pre>
    *     - Spring Security 을 사용할 경우 Security Context 에서 꺼내서 사용함
    *     - Session 사용 시 session 에서 얻어오면 됨
+   *     - 요청 당 한 번만 조회한다. - CachedAuditorAware
    * </pre>
    *
    *
@@ -27,6 +38,32 @@ public class AppConfiguration {
    */
   @Bean
   public AuditorAware<String> auditorProvider() {
-    return () -> Optional.of(UUID.randomUUID().toString());
+    return new CachedAuditorAware(AppConfiguration::randomUuid);
+  }
+
+  /**
+   * 감사 시간 (@CreatedDate, @LastModifiedDate, JpaBaseEntity)
+   *
+   * <pre>
+   *     - app.auditing.clock-resolution 단위로 cache 한 시간을 사용한다. - CoarseClock
+   * </pre>
+   */
+  @Bean
+  public DateTimeProvider auditDateTimeProvider(AuditingProperties properties) {
+    Duration resolution = properties.getClockResolution();
+
+    AuditClock.use(resolution.isZero() ? LocalDateTime::now : new CoarseClock(resolution));
+
+    return new AuditDateTimeProvider();
+  }
+
+  /** UUID.randomUUID() 는 SecureRandom 을 사용해서 느리고, 여러 thread 에서 경합한다. */
+  private static String randomUuid() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+
+    long mostSigBits = (random.nextLong() & ~0xF000L) | 0x4000L; // version 4
+    long leastSigBits = (random.nextLong() & ~(0xC0L << 56)) | (0x80L << 56); // IETF variant
+
+    return new UUID(mostSigBits, leastSigBits).toString();
   }
 }
@@ -0,0 +1,79 @@
+package study.datajpa.configuration;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.datasource.DataSourceType;
+import study.datajpa.datasource.ReplicationDataSource;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.async.AsyncJdbcProperties;
+import study.datajpa.repository.async.AsyncMemberRepository;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+
+@Configuration
+@EnableConfigurationProperties(AsyncJdbcProperties.class)
+public class AsyncJdbcConfiguration {
+
+  /** Hikari maximum-pool-size 기본값 */
+  private static final int DEFAULT_POOL_SIZE = 10;
+
+  /**
+   * ! 주의할 점
+   *
+   * <pre>
+   *     - JDBC 용 thread pool 은 bean 으로 등록하지 않는다.
+   *        - Executor bean 이 있으면 Spring Boot 가 기본 applicationTaskExecutor 를 만들지 않는다.
+   *     - 대기열이 가득 차면 TaskRejectedException (RejectedExecutionException) 으로 거절한다. - AbortPolicy
+   * </pre>
+   */
+  @Bean
+  public AsyncMemberRepository asyncMemberRepository(
+      MemberRepository memberRepository,
+      PlatformTransactionManager transactionManager,
+      DataSource dataSource,
+      AsyncJdbcProperties properties) {
+
+    int threads = properties.getThreads() > 0 ? properties.getThreads() : poolSize(dataSource);
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    executor.setCorePoolSize(threads);
+    executor.setMaxPoolSize(threads);
+    executor.setQueueCapacity(properties.getQueueCapacity());
+    executor.setThreadNamePrefix("jdbc-");
+    executor.initialize();
+
+    return new AsyncMemberRepository(memberRepository, transactionManager, executor);
+  }
+
+  /**
+   * 읽기 전용 Transaction 에서 사용하는 connection pool 의 크기 - 읽기/쓰기 분리 시 replica
+   *
+   * <pre>
+   *     - pool 을 알 수 없거나, 아직 시작되지 않아 크기가 정해지지 않았으면 (-1) Hikari 기본값을 사용한다.
+   * </pre>
+   */
+  private static int poolSize(DataSource dataSource) {
+    int size = -1;
+
+    try {
+      if (dataSource instanceof ReplicationDataSource) {
+        size =
+            ((ReplicationDataSource) dataSource)
+                .getPool(DataSourceType.REPLICA)
+                .getMaximumPoolSize();
+      } else if (dataSource.isWrapperFor(HikariDataSource.class)) {
+        size = dataSource.unwrap(HikariDataSource.class).getMaximumPoolSize();
+      }
+    } catch (SQLException e) {
+      // Hikari 가 아닌 경우
+    }
+
+    return size > 0 ? size : DEFAULT_POOL_SIZE;
+  }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.repository.bulk.MemberBulkOperations;
+
+import javax.persistence.EntityManager;
+
+@Configuration
+public class BulkConfiguration {
+
+  @Bean
+  public MemberBulkOperations memberBulkOperations(
+      EntityManager em, PlatformTransactionManager transactionManager) {
+    return new MemberBulkOperations(em, transactionManager);
+  }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.configuration;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.coalesce.CoalescingMemberRepository;
+
+@Configuration
+public class CoalescingConfiguration {
+
+  /** MeterBinder 이므로 Spring Boot 가 MeterRegistry 에 지표를 등록한다. */
+  @Bean
+  public CoalescingMemberRepository coalescingMemberRepository(
+      MemberRepository memberRepository, PlatformTransactionManager transactionManager) {
+    return new CoalescingMemberRepository(memberRepository, transactionManager);
+  }
+}
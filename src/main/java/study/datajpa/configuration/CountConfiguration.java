@@ -0,0 +1,54 @@
+package study.datajpa.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import study.datajpa.repository.count.CountCache;
+import study.datajpa.repository.count.CountCacheInvalidator;
+import study.datajpa.repository.count.CountProperties;
+import study.datajpa.repository.count.PageCountExecutor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+
+@Configuration
+@EnableConfigurationProperties(CountProperties.class)
+public class CountConfiguration {
+
+  @Bean
+  public CountCache countCache(CountProperties properties) {
+    return new CountCache(properties.getCacheTtl(), properties.getMaxEntries());
+  }
+
+  @Bean
+  public CountCacheInvalidator countCacheInvalidator(CountCache countCache) {
+    return new CountCacheInvalidator(countCache);
+  }
+
+  /**
+   * ! 주의할 점
+   *
+   * <pre>
+   *     - EntityManager 는 Spring 이 주입해주는 Proxy 이므로, 현재 Transaction 의 EntityManager 를 사용한다.
+   *     - count 용 thread pool 은 bean 으로 등록하지 않는다.
+   *        - Executor bean 이 있으면 Spring Boot 가 기본 applicationTaskExecutor 를 만들지 않는다.
+   * </pre>
+   */
+  @Bean
+  public PageCountExecutor pageCountExecutor(
+      EntityManager em,
+      EntityManagerFactory emf,
+      CountCache countCache,
+      CountProperties properties) {
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+
+    executor.setCorePoolSize(properties.getAsyncThreads());
+    executor.setMaxPoolSize(properties.getAsyncThreads());
+    executor.setThreadNamePrefix("count-");
+    executor.initialize();
+
+    return new PageCountExecutor(em, emf, countCache, executor, properties.isAsync());
+  }
+}
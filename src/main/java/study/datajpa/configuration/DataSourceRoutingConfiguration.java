@@ -0,0 +1,75 @@
+package study.datajpa.configuration;
+
+import com.github.gavlyukovskiy.boot.jdbc.decorator.DataSourceDecorator;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.datasource.ReplicationDataSource;
+import study.datajpa.datasource.RoutingDataSourceProperties;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * 읽기/쓰기 DataSource 분리
+ *
+ * <pre>
+ *     - app.datasource.routing.enabled=true 일 때만 사용한다. - local 은 replica profile (application-replica.yml)
+ *     - DataSource bean 을 직접 등록하므로, Spring Boot 의 spring.datasource 설정은 사용되지 않는다.
+ * </pre>
+ */
+@Configuration
+@EnableConfigurationProperties(RoutingDataSourceProperties.class)
+@ConditionalOnProperty(prefix = "app.datasource.routing", name = "enabled", havingValue = "true")
+public class DataSourceRoutingConfiguration {
+
+  /**
+   * ! 주의할 점
+   *
+   * <pre>
+   *     - p6spy 는 이 bean 이 아닌 pool 에 적용한다. - decorator.datasource.exclude-beans 에 dataSource 를 넣어야 한다.
+   * </pre>
+   */
+  @Bean
+  public ReplicationDataSource dataSource(
+      RoutingDataSourceProperties properties, ObjectProvider<DataSourceDecorator> decorators) {
+    HikariDataSource primary = pool("primary", properties.getPrimary(), false);
+    HikariDataSource replica = pool("replica", properties.getReplica(), true);
+
+    List<DataSourceDecorator> ordered = decorators.orderedStream().collect(Collectors.toList());
+
+    return new ReplicationDataSource(
+        primary,
+        replica,
+        (name, dataSource) -> {
+          DataSource decorated = dataSource;
+
+          for (DataSourceDecorator decorator : ordered) {
+            decorated = decorator.decorate(name, decorated);
+          }
+
+          return decorated;
+        },
+        properties.getLagQuery(),
+        properties.getMaxLag(),
+        properties.getCheckInterval());
+  }
+
+  private HikariDataSource pool(
+      String name, RoutingDataSourceProperties.Pool pool, boolean readOnly) {
+    HikariDataSource dataSource = new HikariDataSource();
+
+    dataSource.setPoolName(name);
+    dataSource.setJdbcUrl(pool.getUrl());
+    dataSource.setUsername(pool.getUsername());
+    dataSource.setPassword(pool.getPassword());
+    dataSource.setMaximumPoolSize(pool.getMaximumPoolSize());
+    dataSource.setReadOnly(readOnly);
+
+    return dataSource;
+  }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.repository.support.MultiGetProperties;
+import study.datajpa.repository.support.SubselectFetchAspect;
+
+import javax.persistence.EntityManager;
+
+@Configuration
+@EnableConfigurationProperties(MultiGetProperties.class)
+public class FetchConfiguration {
+
+  @Bean
+  public SubselectFetchAspect subselectFetchAspect(EntityManager em) {
+    return new SubselectFetchAspect(em);
+  }
+}
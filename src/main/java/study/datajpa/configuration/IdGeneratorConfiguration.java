@@ -0,0 +1,32 @@
+package study.datajpa.configuration;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.entity.CustomId;
+import study.datajpa.entity.IdGenerator;
+import study.datajpa.entity.SnowflakeIdGenerator;
+
+@Configuration
+public class IdGeneratorConfiguration {
+
+  /**
+   * Item 등 직접 할당하는 ID 생성기
+   *
+   * <pre>
+   *     - app.id.node-id 는 서버마다 다르게 주어야 한다. (0 ~ 1023)
+   *     - 같은 node id 로 여러 서버를 띄우면 ID 가 충돌할 수 있다.
+   * </pre>
+   *
+   * @param nodeId
+   * @return
+   */
+  @Bean
+  public IdGenerator idGenerator(@Value("${app.id.node-id:0}") long nodeId) {
+    IdGenerator idGenerator = new SnowflakeIdGenerator(nodeId);
+
+    CustomId.use(idGenerator);
+
+    return idGenerator;
+  }
+}
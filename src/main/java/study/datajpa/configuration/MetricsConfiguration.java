@@ -0,0 +1,58 @@
+package study.datajpa.configuration;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.monitoring.EntityLoadCounter;
+import study.datajpa.monitoring.RepositoryMetricsAspect;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Repository / Hibernate 지표 - /actuator/prometheus
+ *
+ * <pre>
+ *     - Repository method 별 : RepositoryMetricsAspect
+ *        - @Query 별 실행 시간은 query (jpql / native) tag 가 붙은 repository.invocations 로 본다.
+ *     - Hibernate Statistics (query plan cache, 2차 cache, flush ...) : hibernate.* - Spring Boot 가 등록
+ *     - hibernate.generate_statistics 가 true 여야 hibernate.* 지표가 수집된다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - HibernateQueryMetrics (JPQL 문자열 별 지표) 는 사용하지 않는다.
+ *        - entity 를 load 할 때마다 모든 query 의 meter 를 다시 등록하므로 hydrate 비용이 커진다.
+ *        - 정렬 조건 (sort=) 으로 만든 JPQL 마다 time series 가 생겨서 끝없이 늘어난다.
+ * </pre>
+ */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "app.metrics.repository",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class MetricsConfiguration {
+
+  @Bean
+  public EntityLoadCounter entityLoadCounter(EntityManagerFactory emf) {
+    EntityLoadCounter counter = new EntityLoadCounter();
+
+    emf.unwrap(SessionFactoryImplementor.class)
+        .getServiceRegistry()
+        .getService(EventListenerRegistry.class)
+        .appendListeners(EventType.POST_LOAD, counter);
+
+    return counter;
+  }
+
+  @Bean
+  public RepositoryMetricsAspect repositoryMetricsAspect(
+      MeterRegistry registry, EntityManagerFactory emf) {
+    return new RepositoryMetricsAspect(registry, emf);
+  }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.configuration;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.monitoring.QueryBudgetFilter;
+import study.datajpa.monitoring.QueryBudgetProperties;
+import study.datajpa.monitoring.QueryCountListener;
+import study.datajpa.monitoring.SqlTraceEndpoint;
+import study.datajpa.monitoring.SqlTraceListener;
+import study.datajpa.monitoring.SqlTraceProperties;
+
+@Configuration
+@EnableConfigurationProperties({QueryBudgetProperties.class, SqlTraceProperties.class})
+public class MonitoringConfiguration {
+
+  @Bean
+  public QueryCountListener queryCountListener() {
+    return new QueryCountListener();
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = "app.query-budget",
+      name = "enabled",
+      havingValue = "true",
+      matchIfMissing = true)
+  public FilterRegistrationBean<QueryBudgetFilter> queryBudgetFilter(
+      QueryBudgetProperties properties) {
+    FilterRegistrationBean<QueryBudgetFilter> registration =
+        new FilterRegistrationBean<>(new QueryBudgetFilter(properties));
+    registration.addUrlPatterns("/*");
+    return registration;
+  }
+
+  @Bean
+  @ConditionalOnProperty(
+      prefix = "app.sql-trace",
+      name = "enabled",
+      havingValue = "true",
+      matchIfMissing = true)
+  public SqlTraceListener sqlTraceListener(SqlTraceProperties properties) {
+    return new SqlTraceListener(properties);
+  }
+
+  @Bean
+  @ConditionalOnBean(SqlTraceListener.class)
+  public SqlTraceEndpoint sqlTraceEndpoint(SqlTraceListener sqlTraceListener) {
+    return new SqlTraceEndpoint(sqlTraceListener);
+  }
+}
@@ -0,0 +1,19 @@
+package study.datajpa.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.repository.support.OptimisticRetryExecutor;
+import study.datajpa.repository.support.RetryProperties;
+
+@Configuration
+@EnableConfigurationProperties(RetryProperties.class)
+public class RetryConfiguration {
+
+  @Bean
+  public OptimisticRetryExecutor optimisticRetryExecutor(
+      PlatformTransactionManager transactionManager, RetryProperties properties) {
+    return new OptimisticRetryExecutor(transactionManager, properties);
+  }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.configuration;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.async.AsyncMemberRepository;
+import study.datajpa.repository.slice.MemberSlicePrefetcher;
+import study.datajpa.repository.slice.SlicePrefetchProperties;
+
+@Configuration
+@EnableConfigurationProperties(SlicePrefetchProperties.class)
+public class SlicePrefetchConfiguration {
+
+  /** MeterBinder 이므로 Spring Boot 가 MeterRegistry 에 지표를 등록한다. */
+  @Bean
+  public MemberSlicePrefetcher memberSlicePrefetcher(
+      MemberRepository memberRepository,
+      AsyncMemberRepository asyncMemberRepository,
+      SlicePrefetchProperties properties) {
+    return new MemberSlicePrefetcher(memberRepository, asyncMemberRepository, properties);
+  }
+}
@@ -0,0 +1,38 @@
+package study.datajpa.controller;
+
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.context.request.async.AsyncWebRequest;
+import org.springframework.web.context.request.async.CallableProcessingInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * 요청 별 비동기 timeout
+ *
+ * <pre>
+ *     - 기본 timeout (spring.mvc.async.request-timeout) 은 모든 비동기 요청에 적용된다.
+ *     - 오래 걸리는 요청 (members/export) 만 handler 에서 with(request, timeout) 으로 timeout 을 늘린다.
+ *     - StreamingResponseBody 는 Callable 로 실행되므로, 비동기 처리가 시작되기 직전에 timeout 을 바꾼다.
+ * </pre>
+ */
+public class AsyncTimeoutInterceptor implements CallableProcessingInterceptor {
+
+  private static final String TIMEOUT_ATTRIBUTE = AsyncTimeoutInterceptor.class.getName() + ".TIMEOUT";
+
+  /** 이 요청의 비동기 처리에만 timeout 을 적용한다. */
+  public static void with(WebRequest request, Duration timeout) {
+    request.setAttribute(TIMEOUT_ATTRIBUTE, timeout, RequestAttributes.SCOPE_REQUEST);
+  }
+
+  @Override
+  public <T> void beforeConcurrentHandling(NativeWebRequest request, Callable<T> task) {
+    Object timeout = request.getAttribute(TIMEOUT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+
+    if (timeout instanceof Duration && request instanceof AsyncWebRequest) {
+      ((AsyncWebRequest) request).setTimeout(((Duration) timeout).toMillis());
+    }
+  }
+}
@@ -0,0 +1,22 @@
+package study.datajpa.controller;
+
+/**
+ * 잘못된 요청 parameter - 400 으로 응답한다.
+ *
+ * <pre>
+ *     - Controller 에서 요청 값을 검증한 곳에서만 던진다.
+ *     - 그 외의 IllegalArgumentException (Spring Assert, Hibernate 등) 은 서버 오류이므로 400 으로 바꾸지 않는다.
+ * </pre>
+ */
+public class BadRequestException extends RuntimeException {
+
+  private static final long serialVersionUID = 1L;
+
+  public BadRequestException(String message) {
+    super(message);
+  }
+
+  public BadRequestException(String message, Throwable cause) {
+    super(message, cause);
+  }
+}
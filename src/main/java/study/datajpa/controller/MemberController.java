@@ -1,42 +1,162 @@
 package study.datajpa.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.web.PageableDefault;
-import org.springframework.web.bind.annotation.GetMapping;
-import org.springframework.web.bind.annotation.PathVariable;
-import org.springframework.web.bind.annotation.RestController;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import study.datajpa.dto.MemberDto;
+import study.datajpa.dto.MemberMultiGetDto;
+import study.datajpa.dto.MemberSliceDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.async.AsyncMemberRepository;
+import study.datajpa.repository.coalesce.CoalescingMemberRepository;
+import study.datajpa.repository.count.CountStrategy;
+import study.datajpa.repository.keyset.KeysetWindow;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.slice.MemberSlicePrefetcher;
+import study.datajpa.repository.slice.MemberSliceToken;
+import study.datajpa.repository.support.MultiGetResult;
+import study.datajpa.repository.support.VersionStamp;
 
 import javax.annotation.PostConstruct;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @RestController
 public class MemberController {
 
+  private static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+  private static final int EXPORT_FETCH_SIZE = 1000;
+
+  private static final Duration EXPORT_TIMEOUT = Duration.ofMinutes(30);
+
+  private static final int MAX_LOOKUP_SIZE = 20;
+
+  private static final int MAX_MULTI_GET_SIZE = 1000;
+
+  private static final int MAX_SLICE_SIZE = 100;
+
   private final MemberRepository memberRepository;
+  private final AsyncMemberRepository asyncMemberRepository;
+  private final CoalescingMemberRepository coalescingMemberRepository;
+  private final MemberSlicePrefetcher memberSlicePrefetcher;
+  private final ObjectMapper objectMapper;
+  private final TransactionTemplate readOnlyTransaction;
 
-  public MemberController(MemberRepository memberRepository) {
+  public MemberController(
+      MemberRepository memberRepository,
+      AsyncMemberRepository asyncMemberRepository,
+      CoalescingMemberRepository coalescingMemberRepository,
+      MemberSlicePrefetcher memberSlicePrefetcher,
+      ObjectMapper objectMapper,
+      PlatformTransactionManager transactionManager) {
     this.memberRepository = memberRepository;
+    this.asyncMemberRepository = asyncMemberRepository;
+    this.coalescingMemberRepository = coalescingMemberRepository;
+    this.memberSlicePrefetcher = memberSlicePrefetcher;
+    this.objectMapper = objectMapper;
+
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
   }
 
 //  @PostConstruct
   public void init() {
 
+    List<Member> members = new ArrayList<>();
+
     for (int i = 0; i < 100; i++) {
-      memberRepository.save(new Member("member" + i, i));
+      members.add(new Member("member" + i, i));
     }
+
+    memberRepository.saveAllBatched(members, 100);
   }
 
+  /**
+   * member 조회
+   *
+   * <pre>
+   *     - 같은 id 로 동시에 들어온 요청은 query 하나로 합친다. - CoalescingMemberRepository
+   *     - 기다리는 요청이 connection 을 잡고 있지 않도록, 여기서는 Transaction 을 열지 않는다.
+   *     - 조건부 GET - version, updateAt 만 조회해서 바뀌지 않았으면 member 를 읽지 않고 304 로 응답한다.
+   * </pre>
+   *
+   * @param id
+   * @param request
+   * @return 304 이면 null
+   */
   @GetMapping(path = "/members/{id}")
-  public String findMember(@PathVariable Long id) {
-    Member findMember = memberRepository.findById(id).get();
+  public String findMember(@PathVariable Long id, ServletWebRequest request) {
+    Optional<VersionStamp> stamp = memberRepository.findVersionStamp(id);
+
+    if (stamp.isPresent() && isNotModified(request, stamp.get())) {
+      return null;
+    }
+
+    //    Member findMember = memberRepository.findById(id).get();
+    //
+    //    return findMember.getUsername();
+
+    MemberDto findMember = coalescingMemberRepository.findById(id).get();
 
     return findMember.getUsername();
   }
 
+  /**
+   * 여러 member 조회 - findMember 를 id 마다 호출하는 대신 사용
+   *
+   * <pre>
+   *     - 중복 id 는 한 번만 조회하고, 없는 id 는 missingIds 로 알려준다.
+   *     - query 는 ceil(N / app.multi-get.batch-size) 번 - 2차 cache 에 있는 member 는 제외
+   * </pre>
+   *
+   * @param ids ex:) members/multi?ids=1,2,3
+   * @return
+   */
+  @GetMapping(path = "members/multi")
+  @Transactional(readOnly = true)
+  public MemberMultiGetDto findMembers(@RequestParam List<Long> ids) {
+    if (ids.size() > MAX_MULTI_GET_SIZE) {
+      throw new BadRequestException(
+          "at most " + MAX_MULTI_GET_SIZE + " ids can be requested at once.");
+    }
+
+    MultiGetResult<Member, Long> result = memberRepository.multiGet(ids);
+
+    return new MemberMultiGetDto(
+        result.getFound().stream().map(MemberDto::new).collect(Collectors.toList()),
+        result.getMissingIds());
+  }
+
   /**
    * Domain Class Converter
    *
@@ -50,6 +170,7 @@ public class MemberController {
    * <pre>
    *     - 반드시 @PathVariable 의 name 을 적어주어야 한다.
    *     - 반드시 조회용으로만 사용해야함 - Transaction 없이 사용한 거라, Dirty Checking 이 이루어지지 않는다.
+   *     - entity 를 주입해야 하므로, 동시 조회를 합치지 (CoalescingMemberRepository) 못한다. - 많이 호출되면 members/{id} 사용
    * </pre>
    *
    * @param member
@@ -67,20 +188,275 @@ public class MemberController {
    *     - Spring Data 에서 Pageable 를 기본으로 사용할 수 있다.
    *     - Pageable 이 여러개 일 경우 prefix 를 정할 수 있다.
    *        - @Qualifier 사용하면 된다.
+   *     - count query 는 cache 된 값을 사용한다. (CountStrategy.CACHED)
+   *     - entity 대신 필요한 column 만 조회해서 MemberDto 로 바로 만든다. (findMemberDtoPage)
+   *     - 읽기 전용 Transaction 이므로, 읽기/쓰기 DataSource 를 분리하면 replica 에서 조회한다.
+   *     - 조건부 GET - 전체 member, team 의 버전 (findMembersVersionStamp) 이 같으면 목록을 조회하지 않고 304 로 응답한다.
    * </pre>
    *
    * @param pageable
-   * @return
+   * @param request
+   * @return 304 이면 null
    */
   @GetMapping(path = "members")
+  @Transactional(readOnly = true)
   public Page<MemberDto> list(
+      @Qualifier("member") @PageableDefault(size = 5, sort = "username") Pageable pageable,
+      ServletWebRequest request) {
+
+    if (isNotModified(request, memberRepository.findMembersVersionStamp())) {
+      return null;
+    }
+
+    //    Page<Member> result = memberRepository.findAllCounted(pageable, CountStrategy.CACHED);
+    //
+    //    // ! DTO 변환
+    //    return result.map(MemberDto::new);
+
+    return memberRepository.findMemberDtoPage(pageable, CountStrategy.CACHED);
+  }
+
+  /**
+   * 무한 scroll (Slice)
+   *
+   * <pre>
+   *     - count query 를 실행하지 않는다. - 다음 slice 여부 (hasNext) 만 알려준다.
+   *     - 첫 요청은 age, size 로, 다음 요청은 응답의 nextToken 만 넘긴다.
+   *     - X-Client-Id header 가 있으면 다음 slice 를 미리 조회해둔다. - MemberSlicePrefetcher
+   * </pre>
+   *
+   * @param token 첫 slice 이면 생략
+   * @param age 첫 slice 에 필요, token 이 있으면 무시
+   * @param size token 이 있으면 무시
+   * @param clientId
+   * @return
+   */
+  @GetMapping(path = "members/slice")
+  public MemberSliceDto slice(
+      @RequestParam(required = false) String token,
+      @RequestParam(required = false) Integer age,
+      @RequestParam(defaultValue = "20") int size,
+      @RequestHeader(name = "X-Client-Id", required = false) String clientId) {
+
+    MemberSliceToken sliceToken;
+
+    if (token != null && !token.isEmpty()) {
+      sliceToken = parse(() -> MemberSliceToken.decode(token));
+    } else if (age != null) {
+      sliceToken = parse(() -> MemberSliceToken.first(age, size));
+    } else {
+      throw new BadRequestException("age or token is required.");
+    }
+
+    if (sliceToken.getSize() > MAX_SLICE_SIZE) {
+      throw new BadRequestException("size must be at most " + MAX_SLICE_SIZE + ".");
+    }
+
+    Slice<MemberDto> slice = memberSlicePrefetcher.findSlice(clientId, sliceToken);
+
+    return new MemberSliceDto(
+        slice.getContent(),
+        slice.hasNext(),
+        slice.hasNext() ? sliceToken.next().encode() : null);
+  }
+
+  /**
+   * 비동기 조회
+   *
+   * <pre>
+   *     - query 는 JDBC 전용 thread pool 에서 실행되고, 요청 thread (Tomcat) 는 바로 반환된다.
+   *     - 결과가 나오면 Spring MVC 가 응답을 이어서 쓴다.
+   *     - pool 이 포화 상태이면 기다리지 않고 503 으로 응답한다.
+   * </pre>
+   *
+   * @param id
+   * @return
+   */
+  @GetMapping(path = "members/async/{id}")
+  public CompletableFuture<ResponseEntity<MemberDto>> findMemberAsync(@PathVariable Long id) {
+    return asyncMemberRepository
+        .findById(id)
+        .thenApply(
+            member ->
+                member
+                    .map(MemberDto::new)
+                    .map(ResponseEntity::ok)
+                    .orElseGet(() -> ResponseEntity.notFound().build()));
+  }
+
+  @GetMapping(path = "members/async")
+  public CompletableFuture<Page<MemberDto>> listAsync(
       @Qualifier("member") @PageableDefault(size = 5, sort = "username") Pageable pageable) {
+    return asyncMemberRepository.findMemberDtoPage(pageable, CountStrategy.CACHED);
+  }
+
+  /**
+   * 여러 username 을 동시에 조회 (fan-out)
+   *
+   * <pre>
+   *     - username 마다 query 를 동시에 실행하므로, 응답 시간이 합이 아니라 가장 느린 query 가 된다.
+   *     - query 하나가 connection 하나를 사용하므로 개수를 제한한다. - MAX_LOOKUP_SIZE
+   * </pre>
+   *
+   * @param usernames
+   * @return username 별 member - 요청한 순서
+   */
+  @GetMapping(path = "members/async/lookup")
+  public CompletableFuture<Map<String, List<MemberDto>>> lookupAsync(
+      @RequestParam("username") List<String> usernames) {
+    List<String> distinct = new ArrayList<>(new LinkedHashSet<>(usernames));
+
+    if (distinct.size() > MAX_LOOKUP_SIZE) {
+      throw new BadRequestException(
+          "at most " + MAX_LOOKUP_SIZE + " usernames can be looked up at once.");
+    }
+
+    List<CompletableFuture<List<MemberDto>>> lookups =
+        distinct.stream()
+            .map(
+                username ->
+                    asyncMemberRepository
+                        .findByUsername(username)
+                        .thenApply(
+                            members ->
+                                members.stream().map(MemberDto::new).collect(Collectors.toList())))
+            .collect(Collectors.toList());
 
-    Page<Member> result = memberRepository.findAll(pageable);
+    return CompletableFuture.allOf(lookups.toArray(new CompletableFuture<?>[0]))
+        .thenApply(
+            done -> {
+              Map<String, List<MemberDto>> result = new LinkedHashMap<>();
 
-    //    return result;
+              for (int i = 0; i < distinct.size(); i++) {
+                result.put(distinct.get(i), lookups.get(i).join());
+              }
+
+              return result;
+            });
+  }
+
+  /**
+   * Keyset pagination
+   *
+   * <pre>
+   *     - page 번호 대신 이전 응답의 nextCursor 를 넘겨 다음 페이지를 가져온다.
+   *     - offset 을 사용하지 않으므로, 몇 번째 페이지든 조회 비용이 같다.
+   *     - count query 를 실행하지 않는다.
+   *     - (username, id) 순으로 정렬된다.
+   * </pre>
+   *
+   * @param cursor 첫 페이지인 경우 생략
+   * @param size
+   * @return
+   */
+  @GetMapping(path = "members/keyset")
+  @Transactional(readOnly = true)
+  public KeysetWindow<MemberDto> listKeyset(
+      @RequestParam(required = false) String cursor,
+      @RequestParam(defaultValue = "5") int size) {
+
+    if (size < 1) {
+      throw new BadRequestException("size must be greater than 0.");
+    }
+
+    MemberKeyset after = parse(() -> MemberKeyset.decode(cursor));
+
+    KeysetWindow<Member> result = memberRepository.findKeyset(after, size);
 
-    // ! DTO 변환
     return result.map(MemberDto::new);
   }
+
+  /**
+   * 전체 member export - NDJSON (한 줄에 JSON 하나)
+   *
+   * <pre>
+   *     - 전체를 List 로 만들지 않고, DB cursor 로 읽으면서 바로 응답으로 내보낸다.
+   *     - 첫 번째 row 부터 바로 응답이 시작되고, 데이터 양과 상관없이 memory 사용량이 일정하다.
+   *     - StreamingResponseBody 는 다른 thread 에서 실행되므로, 직접 Transaction 을 시작한다.
+   *     - 이 요청만 비동기 timeout 을 EXPORT_TIMEOUT 으로 늘린다. - 다른 비동기 요청은 기본값
+   * </pre>
+   *
+   * @param request
+   * @return
+   */
+  @GetMapping(path = "members/export")
+  public ResponseEntity<StreamingResponseBody> export(WebRequest request) {
+    AsyncTimeoutInterceptor.with(request, EXPORT_TIMEOUT);
+
+    StreamingResponseBody body =
+        out ->
+            readOnlyTransaction.executeWithoutResult(
+                status -> {
+                  try (Stream<Member> members =
+                          memberRepository.streamMemberCustom(EXPORT_FETCH_SIZE);
+                      JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+
+                    generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+                    generator.setRootValueSeparator(null);
+
+                    long count = 0;
+
+                    for (Member member : (Iterable<Member>) members::iterator) {
+                      objectMapper.writeValue(generator, new MemberDto(member));
+                      generator.writeRaw('\n');
+
+                      // 첫 번째 row 는 바로 내보내고, 이후에는 fetch size 단위로 내보낸다.
+                      if (count++ % EXPORT_FETCH_SIZE == 0) {
+                        generator.flush();
+                      }
+                    }
+                  } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                  }
+                });
+
+    return ResponseEntity.ok().contentType(NDJSON).body(body);
+  }
+
+  /**
+   * If-None-Match, If-Modified-Since 확인 - ETag, Last-Modified header 도 같이 설정한다.
+   *
+   * <pre>
+   *     - true 이면 Spring MVC 가 body 없이 304 로 응답한다.
+   *     - 응답은 매번 다시 확인하도록 한다. (Cache-Control: no-cache)
+   * </pre>
+   */
+  private static boolean isNotModified(ServletWebRequest request, VersionStamp stamp) {
+    if (request.getResponse() != null) {
+      request
+          .getResponse()
+          .setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+    }
+
+    return request.checkNotModified(stamp.getETag(), stamp.getLastModified());
+  }
+
+  /**
+   * client 가 넘긴 token (cursor) 해석 - 잘못된 값이면 400
+   *
+   * <pre>
+   *     - token 해석 중 발생한 IllegalArgumentException 만 BadRequestException 으로 바꾼다.
+   * </pre>
+   */
+  private static <T> T parse(Supplier<T> parser) {
+    try {
+      return parser.get();
+    } catch (IllegalArgumentException e) {
+      throw new BadRequestException(e.getMessage(), e);
+    }
+  }
+
+  @ResponseStatus(HttpStatus.BAD_REQUEST)
+  @ExceptionHandler(BadRequestException.class)
+  public String badRequest(BadRequestException e) {
+    return e.getMessage();
+  }
+
+  /** 비동기 JDBC pool 포화 - 잠시 후 다시 요청하도록 한다. */
+  @ExceptionHandler(RejectedExecutionException.class)
+  public ResponseEntity<String> serviceUnavailable(RejectedExecutionException e) {
+    return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+        .header(HttpHeaders.RETRY_AFTER, "1")
+        .body("too many concurrent queries, retry later.");
+  }
 }
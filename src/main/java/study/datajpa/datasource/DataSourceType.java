@@ -0,0 +1,10 @@
+package study.datajpa.datasource;
+
+public enum DataSourceType {
+
+  /** 쓰기 - 읽기/쓰기 Transaction, Transaction 밖 */
+  PRIMARY,
+
+  /** 읽기 - @Transactional(readOnly = true) */
+  REPLICA
+}
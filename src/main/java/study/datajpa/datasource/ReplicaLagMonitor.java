@@ -0,0 +1,92 @@
+package study.datajpa.datasource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+
+/**
+ * replica 복제 지연 확인
+ *
+ * <pre>
+ *     - lagQuery 결과(초) 가 maxLag 보다 크거나, 실행에 실패하면 replica 를 사용하지 않는다.
+ *        - ex:) MySQL - performance_schema 의 replication 지연, PostgreSQL - now() - pg_last_xact_replay_timestamp()
+ *     - lagQuery 가 없으면 Connection 이 유효한지만 확인한다.
+ *     - 결과가 null 이면 복제가 멈춘 것으로 본다.
+ * </pre>
+ */
+public class ReplicaLagMonitor implements Runnable {
+
+  private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+
+  private static final int VALID_TIMEOUT_SECONDS = 1;
+
+  private final DataSource replica;
+  private final ReplicationRoutingDataSource routingDataSource;
+  private final String lagQuery;
+  private final Duration maxLag;
+
+  /** 마지막으로 확인한 지연 - 확인 실패 시 null */
+  private volatile Duration lastLag = Duration.ZERO;
+
+  public ReplicaLagMonitor(
+      DataSource replica,
+      ReplicationRoutingDataSource routingDataSource,
+      String lagQuery,
+      Duration maxLag) {
+    this.replica = replica;
+    this.routingDataSource = routingDataSource;
+    this.lagQuery = lagQuery;
+    this.maxLag = maxLag;
+  }
+
+  @Override
+  public void run() {
+    Duration lag;
+
+    try {
+      lag = measure();
+    } catch (SQLException | RuntimeException e) {
+      log.warn("replica check failed - {}", e.toString());
+      lag = null;
+    }
+
+    boolean available = lag != null && lag.compareTo(maxLag) <= 0;
+
+    if (available != routingDataSource.isReplicaAvailable()) {
+      log.warn("replica {} (lag {})", available ? "available" : "unavailable", lag);
+    }
+
+    lastLag = lag;
+    routingDataSource.setReplicaAvailable(available);
+  }
+
+  private Duration measure() throws SQLException {
+    try (Connection connection = replica.getConnection()) {
+      if (lagQuery == null || lagQuery.isEmpty()) {
+        return connection.isValid(VALID_TIMEOUT_SECONDS) ? Duration.ZERO : null;
+      }
+
+      try (Statement statement = connection.createStatement();
+          ResultSet resultSet = statement.executeQuery(lagQuery)) {
+
+        if (!resultSet.next()) {
+          return null;
+        }
+
+        double seconds = resultSet.getDouble(1);
+
+        return resultSet.wasNull() ? null : Duration.ofMillis((long) (seconds * 1000));
+      }
+    }
+  }
+
+  public Duration getLastLag() {
+    return lastLag;
+  }
+}
@@ -0,0 +1,144 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+/**
+ * primary / replica pool 과 routing, 지연 확인을 묶은 DataSource
+ *
+ * <pre>
+ *     - LazyConnectionDataSourceProxy -> ReplicationRoutingDataSource -> primary / replica pool
+ *     - pool 은 bean 으로 등록하지 않고, bean 소멸 시 close() 로 pool 과 지연 확인 thread 를 정리한다.
+ *     - 지표 (Micrometer)
+ *        - datasource.routing.connections (type=primary | replica) : 각 pool 로 보낸 Connection 수
+ *        - datasource.routing.fallbacks : replica 를 사용할 수 없어 primary 로 보낸 읽기 전용 Connection 수
+ *        - datasource.replica.lag : 마지막으로 확인한 복제 지연 - 확인 실패 시 NaN
+ *        - hikaricp.connections.* (pool=primary | replica) : pool 이 bean 이 아니므로 Spring Boot 대신 직접 등록한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - p6spy 등 DataSource 를 감싸는 기능은 이 DataSource 가 아니라 pool 에 적용해야 한다. - decorator
+ *        - p6spy 는 Connection 을 얻자마자 getMetaData() 를 호출하므로, Proxy 가 readOnly 설정 전에 실제 Connection 을 얻게 된다.
+ *     - pool 지표는 bean 생성 시점이 아니라 bindTo() 에서 등록한다.
+ *        - bean 생성 시 MeterRegistry 를 주입받으면 MeterBinder (repository) -> EntityManagerFactory -> DataSource 순환 참조가 된다.
+ * </pre>
+ */
+public class ReplicationDataSource extends LazyConnectionDataSourceProxy
+    implements Closeable, MeterBinder {
+
+  private final HikariDataSource primary;
+  private final HikariDataSource replica;
+  private final ReplicationRoutingDataSource routingDataSource;
+  private final ReplicaLagMonitor lagMonitor;
+  private final ScheduledExecutorService scheduler;
+
+  public ReplicationDataSource(
+      HikariDataSource primary,
+      HikariDataSource replica,
+      BiFunction<String, DataSource, DataSource> decorator,
+      String lagQuery,
+      Duration maxLag,
+      Duration checkInterval) {
+    this.primary = primary;
+    this.replica = replica;
+
+    this.routingDataSource =
+        new ReplicationRoutingDataSource(
+            decorator.apply(primary.getPoolName(), primary),
+            decorator.apply(replica.getPoolName(), replica));
+    this.routingDataSource.afterPropertiesSet();
+
+    this.lagMonitor = new ReplicaLagMonitor(replica, routingDataSource, lagQuery, maxLag);
+    this.lagMonitor.run();
+
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            runnable -> {
+              Thread thread = new Thread(runnable, "replica-lag-monitor");
+              thread.setDaemon(true);
+              return thread;
+            });
+
+    long interval = checkInterval.toMillis();
+    this.scheduler.scheduleWithFixedDelay(lagMonitor, interval, interval, TimeUnit.MILLISECONDS);
+
+    setTargetDataSource(routingDataSource);
+    afterPropertiesSet();
+  }
+
+  public ReplicationRoutingDataSource getRoutingDataSource() {
+    return routingDataSource;
+  }
+
+  public ReplicaLagMonitor getLagMonitor() {
+    return lagMonitor;
+  }
+
+  public HikariDataSource getPool(DataSourceType type) {
+    return type == DataSourceType.PRIMARY ? primary : replica;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bindPool(primary, registry);
+    bindPool(replica, registry);
+
+    for (DataSourceType type : DataSourceType.values()) {
+      FunctionCounter.builder(
+              "datasource.routing.connections",
+              routingDataSource,
+              routing -> routing.getRouted(type))
+          .tag("type", type.name().toLowerCase(Locale.ROOT))
+          .register(registry);
+    }
+
+    FunctionCounter.builder(
+            "datasource.routing.fallbacks",
+            routingDataSource,
+            ReplicationRoutingDataSource::getFallbacks)
+        .register(registry);
+
+    TimeGauge.builder(
+            "datasource.replica.lag",
+            lagMonitor,
+            TimeUnit.MILLISECONDS,
+            ReplicationDataSource::lagMillis)
+        .register(registry);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+    replica.close();
+    primary.close();
+  }
+
+  /** 실행 중인 pool 에도 등록할 수 있다. 단 한 번만 가능하다. */
+  private static void bindPool(HikariDataSource pool, MeterRegistry registry) {
+    if (pool.getMetricsTrackerFactory() == null && pool.getMetricRegistry() == null) {
+      pool.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+    }
+  }
+
+  private static double lagMillis(ReplicaLagMonitor lagMonitor) {
+    Duration lag = lagMonitor.getLastLag();
+
+    return lag == null ? Double.NaN : lag.toMillis();
+  }
+}
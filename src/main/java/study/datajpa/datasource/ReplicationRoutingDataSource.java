@@ -0,0 +1,85 @@
+package study.datajpa.datasource;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 읽기 전용 Transaction 은 replica, 나머지는 primary 로 보낸다.
+ *
+ * <pre>
+ *     - Connection 을 얻는 시점의 TransactionSynchronizationManager.isCurrentTransactionReadOnly() 로 판단한다.
+ *     - replica 가 사용할 수 없는 상태(지연, 장애) 이면 읽기 전용 Transaction 도 primary 로 보낸다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 반드시 LazyConnectionDataSourceProxy 로 감싸서 사용해야 한다.
+ *        - Transaction Manager 는 readOnly 설정 전에 Connection 을 먼저 얻으므로, 그대로 사용하면 항상 primary 로 간다.
+ *        - Proxy 는 실제 SQL 을 실행할 때 Connection 을 얻는다.
+ * </pre>
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+  private final Map<DataSourceType, LongAdder> routed = new EnumMap<>(DataSourceType.class);
+  private final LongAdder fallbacks = new LongAdder();
+
+  private volatile boolean replicaAvailable = true;
+
+  public ReplicationRoutingDataSource(DataSource primary, DataSource replica) {
+    Map<Object, Object> targets = new HashMap<>();
+    targets.put(DataSourceType.PRIMARY, primary);
+    targets.put(DataSourceType.REPLICA, replica);
+
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+
+    for (DataSourceType type : DataSourceType.values()) {
+      routed.put(type, new LongAdder());
+    }
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    DataSourceType type = route();
+    routed.get(type).increment();
+    return type;
+  }
+
+  private DataSourceType route() {
+    if (!TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+      return DataSourceType.PRIMARY;
+    }
+
+    if (!replicaAvailable) {
+      fallbacks.increment();
+      return DataSourceType.PRIMARY;
+    }
+
+    return DataSourceType.REPLICA;
+  }
+
+  public boolean isReplicaAvailable() {
+    return replicaAvailable;
+  }
+
+  public void setReplicaAvailable(boolean replicaAvailable) {
+    this.replicaAvailable = replicaAvailable;
+  }
+
+  /** type 으로 Connection 을 얻은 횟수 */
+  public long getRouted(DataSourceType type) {
+    return routed.get(type).sum();
+  }
+
+  /** replica 를 사용할 수 없어 읽기 전용 Transaction 을 primary 로 보낸 횟수 */
+  public long getFallbacks() {
+    return fallbacks.sum();
+  }
+}
@@ -0,0 +1,115 @@
+package study.datajpa.datasource;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.datasource.routing")
+public class RoutingDataSourceProperties {
+
+  /** 읽기/쓰기 DataSource 분리 - false 이면 spring.datasource 하나만 사용한다. */
+  private boolean enabled = false;
+
+  private Pool primary = new Pool();
+
+  private Pool replica = new Pool();
+
+  /** replica 지연 확인 query - 결과는 지연 시간(초), 없으면 Connection 유효성만 확인 */
+  private String lagQuery;
+
+  /** 이보다 지연되면 replica 를 사용하지 않는다. */
+  private Duration maxLag = Duration.ofSeconds(5);
+
+  /** replica 지연 확인 주기 */
+  private Duration checkInterval = Duration.ofSeconds(5);
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Pool getPrimary() {
+    return primary;
+  }
+
+  public void setPrimary(Pool primary) {
+    this.primary = primary;
+  }
+
+  public Pool getReplica() {
+    return replica;
+  }
+
+  public void setReplica(Pool replica) {
+    this.replica = replica;
+  }
+
+  public String getLagQuery() {
+    return lagQuery;
+  }
+
+  public void setLagQuery(String lagQuery) {
+    this.lagQuery = lagQuery;
+  }
+
+  public Duration getMaxLag() {
+    return maxLag;
+  }
+
+  public void setMaxLag(Duration maxLag) {
+    this.maxLag = maxLag;
+  }
+
+  public Duration getCheckInterval() {
+    return checkInterval;
+  }
+
+  public void setCheckInterval(Duration checkInterval) {
+    this.checkInterval = checkInterval;
+  }
+
+  public static class Pool {
+
+    private String url;
+    private String username;
+    private String password;
+
+    /** Connection pool 최대 크기 */
+    private int maximumPoolSize = 10;
+
+    public String getUrl() {
+      return url;
+    }
+
+    public void setUrl(String url) {
+      this.url = url;
+    }
+
+    public String getUsername() {
+      return username;
+    }
+
+    public void setUsername(String username) {
+      this.username = username;
+    }
+
+    public String getPassword() {
+      return password;
+    }
+
+    public void setPassword(String password) {
+      this.password = password;
+    }
+
+    public int getMaximumPoolSize() {
+      return maximumPoolSize;
+    }
+
+    public void setMaximumPoolSize(int maximumPoolSize) {
+      this.maximumPoolSize = maximumPoolSize;
+    }
+  }
+}
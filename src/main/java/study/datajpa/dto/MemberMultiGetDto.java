@@ -0,0 +1,23 @@
+package study.datajpa.dto;
+
+import java.util.List;
+
+/** 여러 id 조회 응답 - 찾은 member (요청한 순서) 와 없는 id */
+public class MemberMultiGetDto {
+
+  private final List<MemberDto> members;
+  private final List<Long> missingIds;
+
+  public MemberMultiGetDto(List<MemberDto> members, List<Long> missingIds) {
+    this.members = members;
+    this.missingIds = missingIds;
+  }
+
+  public List<MemberDto> getMembers() {
+    return members;
+  }
+
+  public List<Long> getMissingIds() {
+    return missingIds;
+  }
+}
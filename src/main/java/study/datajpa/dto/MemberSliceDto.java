@@ -0,0 +1,29 @@
+package study.datajpa.dto;
+
+import java.util.List;
+
+/** 무한 scroll 응답 - 다음 slice 는 nextToken 으로 요청한다. (마지막이면 null) */
+public class MemberSliceDto {
+
+  private final List<MemberDto> content;
+  private final boolean hasNext;
+  private final String nextToken;
+
+  public MemberSliceDto(List<MemberDto> content, boolean hasNext, String nextToken) {
+    this.content = content;
+    this.hasNext = hasNext;
+    this.nextToken = nextToken;
+  }
+
+  public List<MemberDto> getContent() {
+    return content;
+  }
+
+  public boolean isHasNext() {
+    return hasNext;
+  }
+
+  public String getNextToken() {
+    return nextToken;
+  }
+}
@@ -1,22 +1,29 @@
 package study.datajpa.entity;
 
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
-import java.util.Base64;
-
 public class CustomId {
 
+  /**
+   * ID 생성기
+   *
+   * <pre>
+   *     - entity 의 @PrePersist 에서 사용하기 때문에 static 으로 가지고 있는다.
+   *     - application 시작 시 node id 가 설정된 생성기로 교체된다. (IdGeneratorConfiguration)
+   * </pre>
+   */
+  private static volatile IdGenerator generator = new SnowflakeIdGenerator(0);
+
   private String id;
 
   public static String generate() {
+    return generator.generate();
+  }
 
-    LocalDateTime now = LocalDateTime.now();
-
-    long time = now.toInstant(ZoneOffset.UTC).toEpochMilli();
-
-    String s = Base64.getEncoder().encodeToString(String.valueOf(time).getBytes());
+  public static void use(IdGenerator idGenerator) {
+    if (idGenerator == null) {
+      throw new IllegalArgumentException("id generator must not be null.");
+    }
 
-    return s.replaceAll("[\\W]", "");
+    generator = idGenerator;
   }
 
   public String getId() {
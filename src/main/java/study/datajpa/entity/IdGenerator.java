@@ -0,0 +1,14 @@
+package study.datajpa.entity;
+
+/**
+ * ID 생성 전략
+ *
+ * <pre>
+ *     - 직접 ID 를 할당하는 entity (Item) 에서 사용한다.
+ *     - 구현체를 CustomId.use() 로 교체할 수 있다.
+ * </pre>
+ */
+public interface IdGenerator {
+
+  String generate();
+}
@@ -1,5 +1,7 @@
 package study.datajpa.entity;
 
+import study.datajpa.auditing.AuditClock;
+
 import javax.persistence.Column;
 import javax.persistence.MappedSuperclass;
 import javax.persistence.PrePersist;
@@ -14,10 +16,16 @@ public class JpaBaseEntity {
 
   private LocalDateTime updatedDate;
 
-  /** JPA 에서 persist 되기 전 event 를 발생시킴 */
+  /**
+   * JPA 에서 persist 되기 전 event 를 발생시킴
+   *
+   * <pre>
+   *     - 현재 시간은 AuditClock 에서 가져온다. - cache 된 시간, AuditStamp.trusted() 안이면 고정된 시간
+   * </pre>
+   */
   @PrePersist
   public void prePersist() {
-    LocalDateTime now = LocalDateTime.now();
+    LocalDateTime now = AuditClock.now();
 
     createdDate = now;
     updatedDate = now;
@@ -26,7 +34,7 @@ public class JpaBaseEntity {
   /** JPA 에서 update 될 때 event */
   @PreUpdate
   public void preUpdate() {
-    updatedDate = LocalDateTime.now();
+    updatedDate = AuditClock.now();
   }
 
   public LocalDateTime getCreatedDate() {
@@ -1,11 +1,29 @@
 package study.datajpa.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
 @Entity
+// Keyset pagination 용 index - (username, member_id) 순서로 정렬/검색
+@Table(indexes = @Index(name = "idx_member_username_id", columnList = "username, member_id"))
 @NamedQuery(
     name = "Member.findByUsername",
-    query = "select m from Member m where m.username = :username")
+    query = "select m from Member m where m.username = :username",
+    hints = @QueryHint(name = "org.hibernate.cacheable", value = "true"))
+
+/**
+ * 2차 cache
+ *
+ * <pre>
+ *     - find(id) 는 Persistence Context -> 2차 cache -> DB 순서로 찾는다.
+ *     - READ_WRITE : commit 이 된 후 cache 에 반영되므로, 다른 Transaction 이 수정 중인 값을 읽지 않는다.
+ *     - bulk 연산(JPQL update, delete) 을 실행하면 Hibernate 가 Member region 과 관련된 query cache 를 비운다.
+ * </pre>
+ */
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "member")
 
 // JPA Entity Graph
 @NamedEntityGraph(name = "Member.all", attributeNodes = @NamedAttributeNode("team"))
@@ -20,14 +38,37 @@ import javax.persistence.*;
 //public class Member extends JpaBaseEntity{
 public class Member extends BaseEntity{
 
+  /**
+   * Sequence - pooled
+   *
+   * <pre>
+   *     - allocationSize 만큼 sequence 를 한번에 할당 받아, insert 마다 sequence 를 조회하지 않는다.
+   *     - hibernate.jdbc.batch_size 와 같이 사용하면 insert 를 batch 로 묶어 보낼 수 있다.
+   *     - IDENTITY 전략은 insert 해야 ID 를 알 수 있어서 batch insert 가 불가능하다.
+   * </pre>
+   */
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+  @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
   @Column(name = "member_id")
   private Long id;
 
   private String username;
   private int age;
 
+  /**
+   * Optimistic Lock
+   *
+   * <pre>
+   *     - update 시 where version = ? 조건을 붙이고 version 을 1 증가시킨다.
+   *     - 다른 Transaction 이 먼저 수정했으면 update 된 row 가 없으므로 OptimisticLockException 이 발생한다.
+   *     - row lock 을 잡고 기다리지 않으므로, 충돌이 적은 곳에서는 PESSIMISTIC_WRITE 보다 처리량이 좋다.
+   *     - 충돌 시 다시 시도하는 것은 OptimisticRetryExecutor 를 사용한다.
+   * </pre>
+   */
+  @Version private Long version;
+
+  // 초기화되지 않은 team proxy 는 hibernate.default_batch_fetch_size 만큼 IN 절로 같이 읽는다.
   @ManyToOne(fetch = FetchType.LAZY)
   @JoinColumn(name = "team_id")
   private Team team;
@@ -76,6 +117,10 @@ public class Member extends BaseEntity{
     this.age = age;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   public Team getTeam() {
     return team;
   }
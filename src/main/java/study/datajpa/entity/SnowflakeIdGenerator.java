@@ -0,0 +1,111 @@
+package study.datajpa.entity;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Snowflake 방식 ID 생성기
+ *
+ * <pre>
+ *     - 64 bit = 0 | timestamp 41 bit | node 10 bit | sequence 12 bit
+ *     - 같은 millisecond 안에서는 sequence 를 증가시켜 충돌하지 않는다.
+ *     - node 마다 다른 node id 를 주면, 여러 서버에서 생성해도 충돌하지 않는다.
+ *     - lock 없이 CAS 로 (timestamp, sequence) 를 한번에 갱신한다.
+ *     - 항상 증가하는 값이므로 정렬이 가능하고, index 에 순서대로 쌓인다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 한 millisecond 에 4096 개를 넘게 생성하면 다음 millisecond 를 미리 당겨 쓴다.
+ *     - 시계가 뒤로 가도 마지막 timestamp 를 계속 사용하므로 값이 줄어들지 않는다.
+ * </pre>
+ */
+public class SnowflakeIdGenerator implements IdGenerator {
+
+  /** 2021-01-01T00:00:00Z */
+  private static final long EPOCH = 1609459200000L;
+
+  private static final int NODE_BITS = 10;
+  private static final int SEQUENCE_BITS = 12;
+
+  public static final long MAX_NODE_ID = (1L << NODE_BITS) - 1;
+  private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+  /** Crockford Base32 - ASCII 순서대로 정렬되어 있어, 문자열 정렬 = 숫자 정렬 */
+  private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+  /** 13 * 5 bit = 65 bit */
+  private static final int ENCODED_LENGTH = 13;
+
+  private final long nodeId;
+
+  /** timestamp << SEQUENCE_BITS | sequence */
+  private final AtomicLong state = new AtomicLong();
+
+  public SnowflakeIdGenerator(long nodeId) {
+    if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+      throw new IllegalArgumentException(
+          "node id must be between 0 and " + MAX_NODE_ID + ": " + nodeId);
+    }
+
+    this.nodeId = nodeId;
+  }
+
+  @Override
+  public String generate() {
+    return encode(nextId());
+  }
+
+  public long nextId() {
+    long now = currentTimeMillis();
+
+    for (; ; ) {
+      long prev = state.get();
+      long prevTimestamp = prev >>> SEQUENCE_BITS;
+
+      long timestamp;
+      long sequence;
+
+      if (now > prevTimestamp) {
+        timestamp = now;
+        sequence = 0;
+      } else {
+        timestamp = prevTimestamp;
+        sequence = (prev & SEQUENCE_MASK) + 1;
+
+        if (sequence > SEQUENCE_MASK) {
+          timestamp++;
+          sequence = 0;
+        }
+      }
+
+      long next = (timestamp << SEQUENCE_BITS) | sequence;
+
+      if (state.compareAndSet(prev, next)) {
+        return ((timestamp - EPOCH) << (NODE_BITS + SEQUENCE_BITS))
+            | (nodeId << SEQUENCE_BITS)
+            | sequence;
+      }
+    }
+  }
+
+  /** 고정 길이로 encode 하여 문자열로 비교해도 순서가 유지된다. */
+  public static String encode(long id) {
+    char[] chars = new char[ENCODED_LENGTH];
+
+    for (int i = ENCODED_LENGTH - 1; i >= 0; i--) {
+      chars[i] = ALPHABET[(int) (id & 0x1F)];
+      id >>>= 5;
+    }
+
+    return new String(chars);
+  }
+
+  protected long currentTimeMillis() {
+    return System.currentTimeMillis();
+  }
+
+  public long getNodeId() {
+    return nodeId;
+  }
+}
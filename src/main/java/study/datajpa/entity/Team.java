@@ -1,19 +1,37 @@
 package study.datajpa.entity;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team") // 작고 거의 바뀌지 않으므로 2차 cache 사용
 public class Team extends JpaBaseEntity{
 
   @Id
-  @GeneratedValue
+  @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "team_seq_generator")
+  @SequenceGenerator(name = "team_seq_generator", sequenceName = "team_seq", allocationSize = 50)
   @Column(name = "team_id")
   private Long id;
 
   private String name;
 
+  @Version private Long version;
+
+  /**
+   * Batch fetch
+   *
+   * <pre>
+   *     - 초기화되지 않은 members 를 처음 접근할 때, 같은 Persistence Context 의 다른 Team members 까지 IN 절로 같이 읽는다.
+   *     - 한번에 읽을 Team 수는 hibernate.default_batch_fetch_size, Team 별로 바꾸려면 @BatchSize 를 사용한다.
+   *     - 조회 method 단위로 한번에 초기화하려면 @SubselectFetch("members") 를 사용한다.
+   * </pre>
+   */
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "team-members") // member id 목록만 cache 된다.
   @OneToMany(mappedBy = "team")
   private List<Member> members = new ArrayList<>();
 
@@ -39,6 +57,10 @@ public class Team extends JpaBaseEntity{
     this.name = name;
   }
 
+  public Long getVersion() {
+    return version;
+  }
+
   public List<Member> getMembers() {
     return members;
   }
@@ -0,0 +1,28 @@
+package study.datajpa.monitoring;
+
+import org.hibernate.event.spi.PostLoadEvent;
+import org.hibernate.event.spi.PostLoadEventListener;
+
+/**
+ * 현재 thread 에서 hydrate (ResultSet / 2차 cache -> entity) 된 entity 수
+ *
+ * <pre>
+ *     - Hibernate POST_LOAD event 마다 1 씩 증가한다. - fetch join, batch fetch 로 같이 읽힌 entity 포함
+ *     - 값은 계속 증가하므로, 호출 전 / 후 값의 차이로 사용한다.
+ * </pre>
+ */
+public class EntityLoadCounter implements PostLoadEventListener {
+
+  private static final long serialVersionUID = 1L;
+
+  private static final ThreadLocal<long[]> LOADED = ThreadLocal.withInitial(() -> new long[1]);
+
+  public static long current() {
+    return LOADED.get()[0];
+  }
+
+  @Override
+  public void onPostLoad(PostLoadEvent event) {
+    LOADED.get()[0]++;
+  }
+}
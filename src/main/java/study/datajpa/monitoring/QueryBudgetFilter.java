@@ -0,0 +1,62 @@
+package study.datajpa.monitoring;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * HTTP 요청 별 SQL budget 검사
+ *
+ * <pre>
+ *     - 요청 하나 동안 실행된 SQL 을 집계해서, budget 을 넘거나 N + 1 이 의심되면 warn log 를 남긴다.
+ *     - 응답은 바꾸지 않는다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 비동기 응답(StreamingResponseBody 등) 에서 다른 thread 로 실행된 SQL 은 집계되지 않는다.
+ * </pre>
+ */
+public class QueryBudgetFilter extends OncePerRequestFilter {
+
+  private static final Logger log = LoggerFactory.getLogger(QueryBudgetFilter.class);
+
+  private final QueryBudgetProperties properties;
+
+  public QueryBudgetFilter(QueryBudgetProperties properties) {
+    this.properties = properties;
+  }
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    QueryScope scope = QueryCounter.open(request.getMethod() + " " + request.getRequestURI());
+
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      scope.close();
+      report(scope);
+    }
+  }
+
+  private void report(QueryScope scope) {
+    List<String> violations =
+        scope.violations(properties.getMaxStatements(), properties.getRepeatThreshold());
+
+    if (!violations.isEmpty()) {
+      log.warn("[{}] query budget exceeded\n  {}", scope.getName(), String.join("\n  ", violations));
+    } else if (log.isDebugEnabled()) {
+      log.debug("[{}] {} statements", scope.getName(), scope.getCount());
+    }
+  }
+}
@@ -0,0 +1,40 @@
+package study.datajpa.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.query-budget")
+public class QueryBudgetProperties {
+
+  /** HTTP 요청 별 SQL 수 집계 */
+  private boolean enabled = true;
+
+  /** 요청 하나에서 허용하는 최대 SQL 수 - 넘으면 warn log, 0 이하이면 검사하지 않는다. */
+  private int maxStatements = 30;
+
+  /** 같은 select 가 몇 번 이상 반복되면 N + 1 로 볼지 - 1 이하이면 검사하지 않는다. */
+  private int repeatThreshold = 5;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public int getMaxStatements() {
+    return maxStatements;
+  }
+
+  public void setMaxStatements(int maxStatements) {
+    this.maxStatements = maxStatements;
+  }
+
+  public int getRepeatThreshold() {
+    return repeatThreshold;
+  }
+
+  public void setRepeatThreshold(int repeatThreshold) {
+    this.repeatThreshold = repeatThreshold;
+  }
+}
@@ -0,0 +1,23 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+
+import java.sql.SQLException;
+
+/**
+ * p6spy 로 실행된 SQL 을 QueryCounter 에 기록
+ *
+ * <pre>
+ *     - JdbcEventListener bean 으로 등록하면 p6spy-spring-boot-starter 가 datasource 에 연결한다.
+ *     - addBatch 는 세지 않고 executeBatch 를 1번으로 센다.
+ * </pre>
+ */
+public class QueryCountListener extends SimpleJdbcEventListener {
+
+  @Override
+  public void onAfterAnyExecute(
+      StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+    QueryCounter.record(statementInformation.getSql());
+  }
+}
@@ -0,0 +1,63 @@
+package study.datajpa.monitoring;
+
+/**
+ * 현재 thread 에서 실행되는 SQL 을 QueryScope 에 집계
+ *
+ * <pre>
+ *     - QueryCountListener (p6spy) 가 SQL 실행 후 record() 를 호출한다.
+ *     - 열린 scope 가 없으면 아무것도 하지 않는다.
+ * </pre>
+ *
+ * <pre>{@code
+ * try (QueryScope scope = QueryCounter.open("members")) {
+ *   ...
+ *   scope.getCount();
+ * }
+ * }</pre>
+ */
+public final class QueryCounter {
+
+  private static final ThreadLocal<QueryScope> CURRENT = new ThreadLocal<>();
+
+  private QueryCounter() {}
+
+  public static QueryScope open(String name) {
+    QueryScope scope = new QueryScope(name, CURRENT.get());
+    CURRENT.set(scope);
+    return scope;
+  }
+
+  /** 현재 thread 에 열려있는 가장 안쪽 scope - 없으면 null */
+  public static QueryScope current() {
+    return CURRENT.get();
+  }
+
+  static void record(String sql) {
+    QueryScope scope = CURRENT.get();
+
+    if (scope != null && sql != null) {
+      scope.record(sql);
+    }
+  }
+
+  static void close(QueryScope scope) {
+    if (CURRENT.get() != scope) {
+      // 안쪽 scope 보다 먼저 닫힌 경우 - 안쪽 scope 까지 같이 정리
+      QueryScope current = CURRENT.get();
+      while (current != null && current != scope) {
+        current = current.getParent();
+      }
+      if (current == null) {
+        return;
+      }
+    }
+
+    QueryScope parent = scope.getParent();
+
+    if (parent == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(parent);
+    }
+  }
+}
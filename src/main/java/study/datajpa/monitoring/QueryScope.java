@@ -0,0 +1,126 @@
+package study.datajpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 하나의 구간(HTTP 요청, test method 등) 안에서 실행된 SQL 통계
+ *
+ * <pre>
+ *     - QueryCounter.open() 으로 시작, close() 로 종료한다.
+ *     - 중첩해서 열 수 있다. - 안쪽 scope 에서 실행된 SQL 은 바깥쪽 scope 에도 집계된다.
+ *     - SQL 은 parameter 가 binding 되기 전 문자열(?) 로 집계한다.
+ *       - 같은 select 가 parameter 만 바뀌어 여러번 실행되면 N + 1 로 본다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 연 thread 에서만 사용해야 한다. - 다른 thread 에서 실행된 SQL 은 집계되지 않는다.
+ * </pre>
+ */
+public final class QueryScope implements AutoCloseable {
+
+  private final String name;
+  private final QueryScope parent;
+
+  private final Map<String, Integer> statements = new LinkedHashMap<>();
+  private int count;
+  private boolean closed;
+
+  QueryScope(String name, QueryScope parent) {
+    this.name = name;
+    this.parent = parent;
+  }
+
+  void record(String sql) {
+    for (QueryScope scope = this; scope != null; scope = scope.parent) {
+      scope.count++;
+      scope.statements.merge(sql, 1, Integer::sum);
+    }
+  }
+
+  QueryScope getParent() {
+    return parent;
+  }
+
+  public String getName() {
+    return name;
+  }
+
+  /** 실행된 SQL 수 - batch 는 executeBatch 1번을 1개로 센다. */
+  public int getCount() {
+    return count;
+  }
+
+  /** SQL 별 실행 횟수 - 실행 순서 */
+  public Map<String, Integer> getStatements() {
+    return Collections.unmodifiableMap(statements);
+  }
+
+  /**
+   * threshold 번 이상 반복된 select - N + 1 의심
+   *
+   * @param threshold 1 이하이면 검사하지 않는다.
+   */
+  public Map<String, Integer> getRepeatedSelects(int threshold) {
+    Map<String, Integer> repeated = new LinkedHashMap<>();
+
+    if (threshold <= 1) {
+      return repeated;
+    }
+
+    statements.forEach(
+        (sql, times) -> {
+          if (times >= threshold && isSelect(sql)) {
+            repeated.put(sql, times);
+          }
+        });
+
+    return repeated;
+  }
+
+  /**
+   * budget 을 넘은 항목
+   *
+   * @param maxStatements 허용하는 최대 SQL 수 - 0 이하이면 검사하지 않는다.
+   * @param repeatThreshold N + 1 로 볼 반복 횟수 - 1 이하이면 검사하지 않는다.
+   * @return 위반 내용 - 없으면 빈 list
+   */
+  public List<String> violations(int maxStatements, int repeatThreshold) {
+    List<String> violations = new ArrayList<>();
+
+    if (maxStatements > 0 && count > maxStatements) {
+      violations.add(
+          String.format("%d statements executed (budget %d)", count, maxStatements));
+    }
+
+    getRepeatedSelects(repeatThreshold)
+        .forEach(
+            (sql, times) ->
+                violations.add(String.format("N + 1 suspected - %d times : %s", times, sql)));
+
+    return violations;
+  }
+
+  @Override
+  public void close() {
+    if (!closed) {
+      closed = true;
+      QueryCounter.close(this);
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "QueryScope{" + "name='" + name + '\'' + ", count=" + count + '}';
+  }
+
+  private static boolean isSelect(String sql) {
+    return sql.trim().toLowerCase(Locale.ROOT).startsWith("select");
+  }
+}
@@ -0,0 +1,199 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.hibernate.Session;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManagerFactory;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Repository method 별 지표 - Micrometer
+ *
+ * <pre>
+ *     - repository.invocations : 실행 시간 (Timer) - histogram 은 management.metrics.distribution 설정
+ *        - @Query method 는 query=jpql | native tag 로 구분된다. - tag 는 method 이름이므로 수가 정해져 있다.
+ *     - repository.rows.returned : 반환한 row 수 (Collection, Page / Slice content, 단건은 0 또는 1)
+ *     - repository.rows.hydrated : 실행 중 hydrate 된 entity 수 - EntityLoadCounter
+ *        - returned 보다 크면 fetch join, 연관관계 초기화 등으로 더 읽은 것
+ *     - repository.persistence.context : 실행 후 Persistence Context 의 entity 수 - Transaction 안에서만
+ *     - tag
+ *        - repository : Repository interface (class) 이름
+ *        - method
+ *        - query : jpql / native (@Query), derived (method 이름), crud (Spring Data 기본), custom
+ *        - exception : 예외 class 이름, 없으면 none
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - Repository 안에서 다른 Repository 를 호출하면 바깥 호출의 rows.hydrated 에도 포함된다.
+ *     - Stream 을 반환하는 method 는 읽기 전에 끝나므로, 실행 시간 / row 수에 읽는 비용이 포함되지 않는다.
+ * </pre>
+ */
+@Aspect
+public class RepositoryMetricsAspect {
+
+  private final MeterRegistry registry;
+  private final EntityManagerFactory emf;
+
+  /** Repository (class) 별, method 별 - findById 등은 여러 Repository 가 같은 Method 를 공유한다. */
+  private final Map<Class<?>, Map<Method, Meters>> meters = new ConcurrentHashMap<>();
+
+  public RepositoryMetricsAspect(MeterRegistry registry, EntityManagerFactory emf) {
+    this.registry = registry;
+    this.emf = emf;
+  }
+
+  @Around(
+      "this(org.springframework.data.repository.Repository)"
+          + " || @within(org.springframework.stereotype.Repository)")
+  public Object record(ProceedingJoinPoint joinPoint) throws Throwable {
+    Object repository = joinPoint.getThis();
+    Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+    Meters meters =
+        this.meters
+            .computeIfAbsent(repository.getClass(), key -> new ConcurrentHashMap<>())
+            .computeIfAbsent(method, key -> new Meters(tags(repository, key)));
+
+    long loaded = EntityLoadCounter.current();
+    Timer.Sample sample = Timer.start(registry);
+    Timer timer = meters.success;
+
+    try {
+      Object result = joinPoint.proceed();
+      meters.rowsReturned.record(rows(result));
+      return result;
+    } catch (Throwable e) {
+      timer = meters.failure(e);
+      throw e;
+    } finally {
+      sample.stop(timer);
+      meters.rowsHydrated.record(EntityLoadCounter.current() - loaded);
+
+      Session session = currentSession();
+
+      if (session != null) {
+        meters.persistenceContext.record(session.getStatistics().getEntityCount());
+      }
+    }
+  }
+
+  /** Transaction 에 묶인 Session - 없으면 null (새로 만들지 않는다) */
+  private Session currentSession() {
+    EntityManagerHolder holder =
+        (EntityManagerHolder) TransactionSynchronizationManager.getResource(emf);
+
+    if (holder == null) {
+      return null;
+    }
+
+    Session session = holder.getEntityManager().unwrap(Session.class);
+
+    return session.isOpen() ? session : null;
+  }
+
+  private long rows(Object result) {
+    if (result == null) {
+      return 0;
+    }
+
+    if (result instanceof Collection) {
+      return ((Collection<?>) result).size();
+    }
+
+    if (result instanceof Slice) {
+      return ((Slice<?>) result).getNumberOfElements();
+    }
+
+    if (result instanceof Optional) {
+      return ((Optional<?>) result).isPresent() ? 1 : 0;
+    }
+
+    return 1;
+  }
+
+  private Tags tags(Object repository, Method method) {
+    return Tags.of("repository", repositoryName(repository), "method", method.getName())
+        .and("query", queryType(method));
+  }
+
+  /** Spring Data Repository 는 Proxy 이므로, 직접 선언한 interface 이름을 사용한다. */
+  private String repositoryName(Object repository) {
+    for (Class<?> type : repository.getClass().getInterfaces()) {
+      if (type.getName().startsWith("study.")) {
+        return type.getSimpleName();
+      }
+    }
+
+    return repository.getClass().getSimpleName();
+  }
+
+  private String queryType(Method method) {
+    Query query = AnnotatedElementUtils.findMergedAnnotation(method, Query.class);
+
+    if (query != null) {
+      return query.nativeQuery() ? "native" : "jpql";
+    }
+
+    if (method.getDeclaringClass().getName().startsWith("org.springframework.data.")) {
+      return "crud";
+    }
+
+    if (!method.getDeclaringClass().isInterface()
+        || method.getDeclaringClass().getSimpleName().endsWith("Custom")) {
+      return "custom";
+    }
+
+    return "derived";
+  }
+
+  /** method 별 Meter - 호출마다 registry 에서 찾지 않는다. */
+  private class Meters {
+
+    private final Tags tags;
+    private final Timer success;
+    private final Map<Class<?>, Timer> failures = new ConcurrentHashMap<>();
+    private final DistributionSummary rowsReturned;
+    private final DistributionSummary rowsHydrated;
+    private final DistributionSummary persistenceContext;
+
+    private Meters(Tags tags) {
+      this.tags = tags;
+      this.success = timer("none");
+      this.rowsReturned = summary("repository.rows.returned", "rows");
+      this.rowsHydrated = summary("repository.rows.hydrated", "entities");
+      this.persistenceContext = summary("repository.persistence.context", "entities");
+    }
+
+    private Timer failure(Throwable e) {
+      return failures.computeIfAbsent(e.getClass(), type -> timer(type.getSimpleName()));
+    }
+
+    private Timer timer(String exception) {
+      return Timer.builder("repository.invocations")
+          .tags(tags)
+          .tag("exception", exception)
+          .register(registry);
+    }
+
+    private DistributionSummary summary(String name, String baseUnit) {
+      return DistributionSummary.builder(name).baseUnit(baseUnit).tags(tags).register(registry);
+    }
+  }
+}
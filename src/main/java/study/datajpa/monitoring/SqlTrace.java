@@ -0,0 +1,72 @@
+package study.datajpa.monitoring;
+
+import java.time.Instant;
+
+/** 기록된 SQL 하나 - bind parameter 가 채워진 SQL */
+public class SqlTrace {
+
+  public enum Reason {
+    SLOW,
+    ERROR,
+    SAMPLED
+  }
+
+  private final Instant executedAt;
+  private final long elapsedMicros;
+  private final Reason reason;
+  private final String sql;
+  private final String thread;
+  private final String error;
+
+  public SqlTrace(
+      Instant executedAt,
+      long elapsedMicros,
+      Reason reason,
+      String sql,
+      String thread,
+      String error) {
+    this.executedAt = executedAt;
+    this.elapsedMicros = elapsedMicros;
+    this.reason = reason;
+    this.sql = sql;
+    this.thread = thread;
+    this.error = error;
+  }
+
+  public Instant getExecutedAt() {
+    return executedAt;
+  }
+
+  public long getElapsedMicros() {
+    return elapsedMicros;
+  }
+
+  public Reason getReason() {
+    return reason;
+  }
+
+  public String getSql() {
+    return sql;
+  }
+
+  public String getThread() {
+    return thread;
+  }
+
+  /** 실패한 경우 예외 message - 성공하면 null */
+  public String getError() {
+    return error;
+  }
+
+  @Override
+  public String toString() {
+    return reason
+        + " "
+        + elapsedMicros / 1000.0
+        + "ms ["
+        + thread
+        + "] "
+        + sql
+        + (error == null ? "" : " - " + error);
+  }
+}
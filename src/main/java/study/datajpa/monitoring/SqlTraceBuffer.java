@@ -0,0 +1,54 @@
+package study.datajpa.monitoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * 최근 기록된 SQL - 고정 크기 ring buffer
+ *
+ * <pre>
+ *     - lock 없이 가장 오래된 것부터 덮어쓴다.
+ *     - snapshot() 은 최신 순서 - 읽는 중에 덮어쓴 항목은 빠질 수 있다.
+ * </pre>
+ */
+public class SqlTraceBuffer {
+
+  private final AtomicReferenceArray<SqlTrace> traces;
+  private final AtomicLong sequence = new AtomicLong();
+
+  public SqlTraceBuffer(int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("buffer size must be greater than 0.");
+    }
+
+    this.traces = new AtomicReferenceArray<>(size);
+  }
+
+  public void add(SqlTrace trace) {
+    traces.set((int) (sequence.getAndIncrement() % traces.length()), trace);
+  }
+
+  /** 지금까지 기록된 수 - 덮어쓴 것 포함 */
+  public long getCount() {
+    return sequence.get();
+  }
+
+  public List<SqlTrace> snapshot() {
+    long last = sequence.get();
+    int size = (int) Math.min(last, traces.length());
+
+    List<SqlTrace> result = new ArrayList<>(size);
+
+    for (long i = last - 1; i >= last - size; i--) {
+      SqlTrace trace = traces.get((int) (i % traces.length()));
+
+      if (trace != null) {
+        result.add(trace);
+      }
+    }
+
+    return result;
+  }
+}
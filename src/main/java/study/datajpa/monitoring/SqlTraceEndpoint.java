@@ -0,0 +1,50 @@
+package study.datajpa.monitoring;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * /actuator/sqltrace
+ *
+ * <pre>
+ *     - GET : 최근 기록된 SQL (최신 순서)
+ *     - POST {"sampleRate": 0.5} : sample 비율 변경 - 재시작하면 설정 값으로 돌아간다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - SQL 이 남고, 누구나 sample 비율을 바꿀 수 있으므로 web 으로 공개하지 않는다. - JMX 로만 사용
+ *     - web (management.endpoints.web.exposure) 에 추가하려면 Spring Security 등으로 인증을 먼저 붙인다.
+ * </pre>
+ */
+@Endpoint(id = "sqltrace")
+public class SqlTraceEndpoint {
+
+  private final SqlTraceListener listener;
+
+  public SqlTraceEndpoint(SqlTraceListener listener) {
+    this.listener = listener;
+  }
+
+  @ReadOperation
+  public Map<String, Object> traces() {
+    Map<String, Object> result = new LinkedHashMap<>();
+    result.put("sampleRate", listener.getSampleRate());
+    result.put("slowThresholdMillis", listener.getSlowThresholdMillis());
+    result.put("recorded", listener.getBuffer().getCount());
+    result.put("dropped", listener.getDropped());
+    result.put("traces", listener.getBuffer().snapshot());
+    return result;
+  }
+
+  @WriteOperation
+  public Map<String, Object> sampleRate(double sampleRate) {
+    listener.setSampleRate(sampleRate);
+    return traces();
+  }
+}
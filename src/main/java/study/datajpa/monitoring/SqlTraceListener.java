@@ -0,0 +1,149 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Sampling SQL trace - 모든 SQL 을 log 로 남기는 대신 일부만 기록한다.
+ *
+ * <pre>
+ *     - slow query (slowThreshold 이상), 실패한 SQL 은 항상 기록한다.
+ *     - 나머지는 sampleRate 비율만큼 기록한다.
+ *     - 기록하지 않는 SQL 은 시간 비교와 난수 1번만 한다. - bind parameter 를 채운 SQL 은 기록할 때만 만든다.
+ *     - bind parameter 값은 기본으로 남기지 않는다. ('?' 그대로) - includeValues 를 켜야 값을 채운다.
+ *     - 기록한 SQL 은 ring buffer (SqlTraceBuffer) 에 남기고, log 는 별도 thread 에서 쓴다.
+ *        - 요청 thread 는 log 를 쓰는 (I/O) 동안 기다리지 않는다.
+ *        - queue 가 가득 차면 log 를 버린다. (dropped 로 센다)
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - includeValues 를 켜면 bind parameter 가 그대로 남으므로, 개인정보가 있는 경우 buffer / log 접근을 제한해야 한다.
+ *     - 실패한 SQL 의 예외 message 에는 DB 에 따라 값이 들어갈 수 있다.
+ *     - /actuator/sqltrace 는 web 으로 공개하지 않는다. (JMX 만) - web 으로 공개하려면 인증을 먼저 붙여야 한다.
+ * </pre>
+ */
+public class SqlTraceListener extends SimpleJdbcEventListener implements Closeable {
+
+  private static final Logger log = LoggerFactory.getLogger(SqlTraceListener.class);
+
+  private final boolean includeValues;
+  private final long slowThresholdNanos;
+  private final SqlTraceBuffer buffer;
+  private final BlockingQueue<SqlTrace> queue;
+  private final AtomicLong dropped = new AtomicLong();
+  private final Thread emitter;
+
+  private volatile double sampleRate;
+
+  public SqlTraceListener(SqlTraceProperties properties) {
+    this.sampleRate = properties.getSampleRate();
+    this.includeValues = properties.isIncludeValues();
+    this.slowThresholdNanos = properties.getSlowThreshold().toNanos();
+    this.buffer = new SqlTraceBuffer(properties.getBufferSize());
+    this.queue = new ArrayBlockingQueue<>(properties.getQueueSize());
+
+    this.emitter = new Thread(this::emit, "sql-trace-emitter");
+    this.emitter.setDaemon(true);
+    this.emitter.start();
+  }
+
+  @Override
+  public void onAfterAnyExecute(
+      StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+    trace(
+        includeValues ? statementInformation::getSqlWithValues : statementInformation::getSql,
+        timeElapsedNanos,
+        e);
+  }
+
+  void trace(Supplier<String> sql, long elapsedNanos, SQLException e) {
+    SqlTrace.Reason reason;
+
+    if (e != null) {
+      reason = SqlTrace.Reason.ERROR;
+    } else if (elapsedNanos >= slowThresholdNanos) {
+      reason = SqlTrace.Reason.SLOW;
+    } else if (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate) {
+      reason = SqlTrace.Reason.SAMPLED;
+    } else {
+      return;
+    }
+
+    SqlTrace trace =
+        new SqlTrace(
+            Instant.now(),
+            TimeUnit.NANOSECONDS.toMicros(elapsedNanos),
+            reason,
+            sql.get(),
+            Thread.currentThread().getName(),
+            e == null ? null : e.getMessage());
+
+    buffer.add(trace);
+
+    if (!queue.offer(trace)) {
+      dropped.incrementAndGet();
+    }
+  }
+
+  private void emit() {
+    try {
+      while (!Thread.currentThread().isInterrupted()) {
+        SqlTrace trace = queue.take();
+
+        if (trace.getReason() == SqlTrace.Reason.SAMPLED) {
+          log.info("{}", trace);
+        } else {
+          log.warn("{}", trace);
+        }
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  /** 실행 중에 sample 비율 변경 - /actuator/sqltrace */
+  public void setSampleRate(double sampleRate) {
+    if (sampleRate < 0 || sampleRate > 1) {
+      throw new IllegalArgumentException("sample rate must be between 0 and 1.");
+    }
+
+    this.sampleRate = sampleRate;
+  }
+
+  public long getSlowThresholdMillis() {
+    return TimeUnit.NANOSECONDS.toMillis(slowThresholdNanos);
+  }
+
+  public SqlTraceBuffer getBuffer() {
+    return buffer;
+  }
+
+  /** queue 가 가득 차서 log 로 내보내지 못한 수 */
+  public long getDropped() {
+    return dropped.get();
+  }
+
+  /** bean 소멸 시 Spring 이 호출 - 남은 log 는 버린다. */
+  @Override
+  public void close() {
+    emitter.interrupt();
+  }
+}
@@ -0,0 +1,79 @@
+package study.datajpa.monitoring;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.sql-trace")
+public class SqlTraceProperties {
+
+  /** SQL trace (sampling / slow query) 사용 여부 */
+  private boolean enabled = true;
+
+  /** 일반 SQL 을 기록할 비율 (0.0 ~ 1.0) - 0 이면 slow query, 실패한 SQL 만 기록한다. */
+  private double sampleRate = 0.01;
+
+  /**
+   * bind parameter 값을 채운 SQL 을 기록할지 여부 - false 이면 '?' 그대로 기록한다.
+   *
+   * <p>값에 개인정보가 들어갈 수 있으므로, 원인 분석이 필요할 때만 잠시 켠다.
+   */
+  private boolean includeValues = false;
+
+  /** 이 시간 이상 걸린 SQL 은 항상 기록한다. */
+  private Duration slowThreshold = Duration.ofMillis(200);
+
+  /** 최근 기록한 SQL 을 보관할 수 - /actuator/sqltrace */
+  private int bufferSize = 256;
+
+  /** log 로 내보내기 전에 쌓아둘 수 - 가득 차면 log 를 버린다. (ring buffer 에는 남는다) */
+  private int queueSize = 1024;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public double getSampleRate() {
+    return sampleRate;
+  }
+
+  public void setSampleRate(double sampleRate) {
+    this.sampleRate = sampleRate;
+  }
+
+  public boolean isIncludeValues() {
+    return includeValues;
+  }
+
+  public void setIncludeValues(boolean includeValues) {
+    this.includeValues = includeValues;
+  }
+
+  public Duration getSlowThreshold() {
+    return slowThreshold;
+  }
+
+  public void setSlowThreshold(Duration slowThreshold) {
+    this.slowThreshold = slowThreshold;
+  }
+
+  public int getBufferSize() {
+    return bufferSize;
+  }
+
+  public void setBufferSize(int bufferSize) {
+    this.bufferSize = bufferSize;
+  }
+
+  public int getQueueSize() {
+    return queueSize;
+  }
+
+  public void setQueueSize(int queueSize) {
+    this.queueSize = queueSize;
+  }
+}
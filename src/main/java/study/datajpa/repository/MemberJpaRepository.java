@@ -1,19 +1,29 @@
 package study.datajpa.repository;
 
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.auditing.AuditClock;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.support.MultiGet;
+import study.datajpa.repository.support.MultiGetProperties;
+import study.datajpa.repository.support.MultiGetResult;
+import study.datajpa.repository.support.ScrollingStreams;
 
 import javax.persistence.EntityManager;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public class MemberJpaRepository {
 
   private final EntityManager em;
+  private final MultiGetProperties multiGetProperties;
 
-  public MemberJpaRepository(EntityManager em) {
+  public MemberJpaRepository(EntityManager em, MultiGetProperties multiGetProperties) {
     this.em = em;
+    this.multiGetProperties = multiGetProperties;
   }
 
   public Member save(Member member) {
@@ -29,11 +39,36 @@ public class MemberJpaRepository {
     return em.createQuery("select m from Member m", Member.class).getResultList();
   }
 
+  /**
+   * findAll() 의 Stream 버전
+   *
+   * <pre>
+   *     - fetchSize 만큼씩 읽고, 읽을 때마다 Persistence Context 를 비운다.
+   *     - 반드시 Transaction 안에서 사용하고, 다 사용한 뒤 close() 해야한다.
+   * </pre>
+   */
+  public Stream<Member> streamAll(int fetchSize) {
+    return ScrollingStreams.stream(
+        em, em.createQuery("select m from Member m", Member.class), fetchSize);
+  }
+
   public Optional<Member> findById(Long id) {
     Member member = em.find(Member.class, id);
     return Optional.of(member);
   }
 
+  /**
+   * 여러 id 를 한 번에 조회
+   *
+   * <pre>
+   *     - em.find 를 N 번 호출하는 대신, 남은 id 를 모아서 IN query 로 읽는다. - MultiGet
+   * </pre>
+   */
+  @Transactional(readOnly = true)
+  public MultiGetResult<Member, Long> multiGet(Collection<Long> ids) {
+    return MultiGet.load(em, Member.class, ids, multiGetProperties.getBatchSize());
+  }
+
   public long count() {
     return em.createQuery("select count(m) from Member m", Long.class).getSingleResult();
   }
@@ -65,6 +100,36 @@ public class MemberJpaRepository {
         .getResultList();
   }
 
+  /**
+   * Keyset pagination - 순수 JPA
+   *
+   * <pre>
+   *     - findByPage 와 같은 정렬 (username desc) 이지만, offset 대신 마지막으로 읽은 (username, id) 이후부터 가져온다.
+   *     - 첫 페이지는 lastUsername, lastId 를 null 로 넘긴다.
+   * </pre>
+   */
+  public List<Member> findByKeyset(int age, String lastUsername, Long lastId, int limit) {
+    if (lastUsername == null || lastId == null) {
+      return em.createQuery(
+              "select m from Member m where m.age >= :age order by m.username desc, m.id desc",
+              Member.class)
+          .setParameter("age", age)
+          .setMaxResults(limit)
+          .getResultList();
+    }
+
+    return em.createQuery(
+            "select m from Member m where m.age >= :age"
+                + " and (m.username < :username or (m.username = :username and m.id < :id))"
+                + " order by m.username desc, m.id desc",
+            Member.class)
+        .setParameter("age", age)
+        .setParameter("username", lastUsername)
+        .setParameter("id", lastId)
+        .setMaxResults(limit)
+        .getResultList();
+  }
+
   public long totalCount(int age) {
     return em.createQuery("select count(m) from Member m where m.age >= :age", Long.class)
         .setParameter("age", age)
@@ -72,8 +137,11 @@ public class MemberJpaRepository {
   }
 
   public int bulkAgePlus(int age) {
-    return em.createQuery("update Member m set m.age = m.age + 1 where m.age >= :age")
+    return em.createQuery(
+            "update Member m set m.age = m.age + 1, m.version = m.version + 1, m.updateAt = :now"
+                + " where m.age >= :age")
         .setParameter("age", age)
+        .setParameter("now", AuditClock.now())
         .executeUpdate();
   }
 
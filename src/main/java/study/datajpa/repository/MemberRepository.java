@@ -9,11 +9,13 @@ import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.UsernameOnlyDto;
 import study.datajpa.entity.Member;
 import study.datajpa.repository.custom.MemberRepositoryCustom;
+import study.datajpa.repository.support.ReadOnlyQuery;
 
 import javax.persistence.LockModeType;
 import javax.persistence.QueryHint;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Custom Repository
@@ -64,6 +66,13 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *     - Spring Data JPA 에서 메소드에 Query 를 직접 사용할 수 있는 기능을 제공하기 때문에 필요없다.
    * </pre>
    *
+   * * Query Cache
+   *
+   * <pre>
+   *     - Member.findByUsername 에 org.hibernate.cacheable hint 를 주었으므로, 결과(id 목록) 가 cache 된다.
+   *     - member table 이 변경되면 (insert, update, delete, bulk 연산) cache 된 결과는 사용하지 않는다.
+   * </pre>
+   *
    * @param username
    * @return
    */
@@ -94,6 +103,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *
    * @return
    */
+  @ReadOnlyQuery
   @Query("select m.username from Member m")
   List<String> findUsernameList();
 
@@ -106,6 +116,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *
    * @return
    */
+  @ReadOnlyQuery
   @Query(
       "select new study.datajpa.dto.MemberDto(m.id, m.username, t.name) from Member m join m.team t")
   List<MemberDto> findUserDto();
@@ -116,6 +127,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    * @param names
    * @return
    */
+  @ReadOnlyQuery
   @Query("select m from Member m where m.username in :names")
   List<Member> findByNames(@Param("names") List<String> names);
 
@@ -145,6 +157,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *     - count query 를 실행하여 페이징 처리를 한다.
    * </pre>
    */
+  @ReadOnlyQuery
   Page<Member> findByAge(int age, Pageable pageable);
 
   /**
@@ -160,6 +173,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    * @param pageable
    * @return
    */
+  @ReadOnlyQuery
   Slice<Member> findSliceByAge(int age, Pageable pageable);
 
   /**
@@ -177,6 +191,7 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    * @param pageable
    * @return
    */
+  @ReadOnlyQuery
   @Query(
       value = "select m from Member m left join m.team t where m.age >= :age",
       countQuery = "select count(m) from Member m")
@@ -199,13 +214,19 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *        1. bulk 연산 사용 후 Persistence Context 를 비우고, 다시 조회하여 사용 - flush(), clear() 후 사용
    *        2. 맨 처음 bulk 연산 후 Persistence Context 를 조회하여 사용
    *        3. @Modifying 의 clearAutomatically 옵션을 사용하면 자동으로 flush(), clear() 를 해준다.
+   *     - bulk 연산은 @Version 을 올려주지 않으므로, 직접 version 을 증가시켜야 Optimistic Lock 이 동작한다.
+   *     - Auditing (@LastModifiedDate) 도 동작하지 않으므로, updateAt 도 직접 바꾼다. - ETag, Last-Modified
+   *     - 2차 cache 는 Hibernate 가 Member region 전체와 member table 을 사용하는 query cache 를 무효화해준다.
+   *     - 대상이 많거나 Persistence Context 를 유지해야 하면 MemberBulkOperations 를 사용한다.
    * </pre>
    *
    * @param age
    * @return
    */
   @Modifying(clearAutomatically = true)
-  @Query("update Member m set m.age = m.age + 1 where m.age >= :age")
+  @Query(
+      "update Member m set m.age = m.age + 1, m.version = m.version + 1,"
+          + " m.updateAt = :#{T(study.datajpa.auditing.AuditClock).now()} where m.age >= :age")
   int bulkAgePlus(@Param("age") int age);
 
   /**
@@ -217,9 +238,25 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *
    * @return
    */
+  @ReadOnlyQuery
   @Query("select m from Member m left join fetch m.team t")
   List<Member> findMemberFetchJoin();
 
+  /**
+   * Fetch Join + paging
+   *
+   * <pre>
+   *     - ~ToOne fetch join 은 row 수가 늘어나지 않으므로 DB 에서 그대로 paging 된다.
+   *     - count query 에는 fetch join 을 넣을 수 없으므로 따로 지정한다.
+   *     - ~ToMany (collection) fetch join 은 memory 에서 paging 되므로 TeamRepository.findPageFetchMembers 처럼 나눠서 조회한다.
+   * </pre>
+   */
+  @ReadOnlyQuery
+  @Query(
+      value = "select m from Member m left join fetch m.team t",
+      countQuery = "select count(m) from Member m")
+  Page<Member> findMemberFetchJoin(Pageable pageable);
+
   /**
    * Entity Graph
    *
@@ -233,17 +270,45 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *
    * @return
    */
+  @ReadOnlyQuery
   @Override
   @EntityGraph(attributePaths = "team")
   List<Member> findAll();
 
+  @ReadOnlyQuery
   @EntityGraph(attributePaths = "team")
   @Query("select m from Member m")
   List<Member> findMemberEntityGraph();
 
+  /**
+   * Stream 조회
+   *
+   * <pre>
+   *     - 전체를 List 로 만들지 않고, DB cursor 로 fetch size 만큼씩 가져온다.
+   *     - 대량 데이터를 export 할 때 사용한다.
+   * </pre>
+   *
+   * ! 주의할 점
+   *
+   * <pre>
+   *     - 반드시 Transaction 안에서 사용하고, 다 사용한 뒤 close() 해야한다. (try-with-resources)
+   *     - Persistence Context 를 비우지 않으므로, 읽은 entity 가 계속 쌓인다.
+   *        - 많은 양을 읽을 때는 streamMemberCustom() 을 사용하거나 직접 clear() 해야한다.
+   * </pre>
+   */
+  @QueryHints(
+      value = {
+        @QueryHint(name = "org.hibernate.fetchSize", value = "1000"),
+        @QueryHint(name = "org.hibernate.readOnly", value = "true")
+      })
+  @Query("select m from Member m")
+  Stream<Member> streamAll();
+
+  @ReadOnlyQuery
   @EntityGraph(attributePaths = "team")
   List<Member> findEntityGraphByUsername(@Param("username") String username);
 
+  @ReadOnlyQuery
   @EntityGraph("Member.all")
   List<Member> findJPAEntityGraphByUsername(@Param("username") String username);
 
@@ -275,24 +340,28 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
    *     - dialect 를 기반으로 하지만, DB 매뉴얼을 보고 사용 권장
    *     - 단, 대규모 트래픽에서 가급적 사용하지 말자
    *        - 이때는, version 을 관리하는 lock 으로 해결하자
+   *        - Member 의 @Version 과 OptimisticRetryExecutor 를 사용하면 된다.
    * </pre>
    */
   @Lock(LockModeType.PESSIMISTIC_WRITE)
   List<Member> findLockByUsername(String username);
 
-  List<UsernameOnly> findProjectionsByUsername(@Param("username") String username);
-
-  List<UsernameOnlyDto> findProjections2ByUsername(@Param("username") String username);
-
   /**
-   * 동적 Projection
+   * 계산된 값을 가진 Closed Projection
    *
-   * @param username
-   * @param type
-   * @param <T>
-   * @return
+   * <pre>
+   *     - username + ' ' + age 를 DB 에서 계산한다. - Open Projection(@Value SpEL) 대신 사용
+   *     - alias (username) 가 UsernameOnly 의 속성 이름과 같아야 한다.
+   * </pre>
    */
-  <T> List<T> findProjections3ByUsername(@Param("username") String username, Class<T> type);
+  @ReadOnlyQuery
+  @Query(
+      "select concat(m.username, ' ', str(m.age)) as username from Member m"
+          + " where m.username = :username")
+  List<UsernameOnly> findProjectionsByUsername(@Param("username") String username);
+
+  @ReadOnlyQuery
+  List<UsernameOnlyDto> findProjections2ByUsername(@Param("username") String username);
 
   /**
    * native query
@@ -315,10 +384,11 @@ public interface MemberRepository extends JpaRepository<Member, Long>, MemberRep
   @Query(value = "select * from member where username = ?", nativeQuery = true)
   Member findByNativeQuery(String username);
 
+  @ReadOnlyQuery
   @Query(
       value =
           "select m.member_id as id, m.username, t.name as teamName "
-              + "from member m left join team t",
+              + "from member m left join team t on m.team_id = t.team_id",
       countQuery = "select count(*) from member",
       nativeQuery = true)
   Page<MemberProjection> findProjectionsByNativeQuery(Pageable pageable);
@@ -9,6 +9,13 @@ package study.datajpa.repository;
  *     - 중첩되는 순간 최적화가 불가능
  *     - 복잡한 쿼리에 한계가 있다.
  * </pre>
+ *
+ * * MemberRepository.findProjections3ByUsername 은 직접 구현했다. - ProjectionQueries
+ *
+ * <pre>
+ *     - select m.username, t.name from Member m left join m.team t
+ *     - entity 를 읽지 않고, 결과 tuple 로 중첩 Projection 을 만든다.
+ * </pre>
  */
 public interface NestedClosedProjections {
 
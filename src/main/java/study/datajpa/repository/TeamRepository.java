@@ -1,6 +1,39 @@
 package study.datajpa.repository;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import study.datajpa.entity.Team;
+import study.datajpa.repository.custom.TeamRepositoryCustom;
+import study.datajpa.repository.support.SubselectFetch;
 
-public interface TeamRepository extends JpaRepository<Team, Long> {}
+import java.util.List;
+
+public interface TeamRepository extends JpaRepository<Team, Long>, TeamRepositoryCustom {
+
+  /**
+   * Team 목록 + members
+   *
+   * <pre>
+   *     - fetch join 없이 paging 한 후, 조회된 Team 들의 members 를 query 1번으로 같이 초기화한다.
+   *     - collection fetch join + paging 은 memory 에서 paging 하므로 사용하지 않는다.
+   * </pre>
+   *
+   * ! 주의할 점
+   *
+   * <pre>
+   *     - Transaction 안에서 호출해야 members 가 초기화된다.
+   * </pre>
+   */
+  @SubselectFetch("members")
+  @Query(value = "select t from Team t", countQuery = "select count(t) from Team t")
+  Page<Team> findAllWithMembers(Pageable pageable);
+
+  @SubselectFetch("members")
+  List<Team> findByNameIn(List<String> names);
+
+  /** members 를 team 2 개씩 나눠 초기화 - fetch join 결과 (team * member row) 를 작게 유지 */
+  @SubselectFetch(value = "members", batchSize = 2)
+  List<Team> findByNameStartingWith(String prefix);
+}
@@ -1,7 +1,5 @@
 package study.datajpa.repository;
 
-import org.springframework.beans.factory.annotation.Value;
-
 public interface UsernameOnly {
 
   /**
@@ -9,16 +7,19 @@ public interface UsernameOnly {
    *
    * <pre>
    *     - DB Query 실행 시 entity 의 모든 필드를 가져와서 계산하는 것
+   *     - ex:) @Value("#{target.username + ' ' + target.age}")
+   *     - getter 를 호출할 때마다 Proxy 를 통해 SpEL 을 해석하므로, 결과가 많으면 느리다.
    * </pre>
    *
    * ! Closed Projection
    *
    * <pre>
    *     - entity 의 정확한 필드를 가져와 리턴해주는 것
+   *     - 계산이 필요하면 query 에서 계산하고 alias 를 속성 이름과 맞춘다. - MemberRepository.findProjectionsByUsername
+   *        - 필요한 column 만 select 하고, SpEL 을 사용하지 않는다.
    * </pre>
    *
-   * @return
+   * @return username + ' ' + age
    */
-  @Value("#{target.username + ' ' + target.age}")
   String getUsername();
 }
@@ -0,0 +1,29 @@
+package study.datajpa.repository.async;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.async-jdbc")
+public class AsyncJdbcProperties {
+
+  /** 비동기 query 를 실행할 thread 수 - 0 이면 connection pool 크기 (maximum-pool-size) */
+  private int threads = 0;
+
+  /** 실행 대기 수 - 넘으면 바로 거절한다. (503) */
+  private int queueCapacity = 100;
+
+  public int getThreads() {
+    return threads;
+  }
+
+  public void setThreads(int threads) {
+    this.threads = threads;
+  }
+
+  public int getQueueCapacity() {
+    return queueCapacity;
+  }
+
+  public void setQueueCapacity(int queueCapacity) {
+    this.queueCapacity = queueCapacity;
+  }
+}
@@ -0,0 +1,98 @@
+package study.datajpa.repository.async;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.count.CountStrategy;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+
+/**
+ * MemberRepository 비동기 실행
+ *
+ * <pre>
+ *     - query 를 JDBC 전용 thread pool 에서 읽기 전용 Transaction 으로 실행하고, CompletableFuture 로 돌려준다.
+ *     - 요청 thread 는 query 를 기다리지 않으므로, 여러 query 를 동시에 실행할 수 있다. (fan-out)
+ *     - thread 수는 connection pool 크기와 같다. - 더 많으면 connection 을 기다리는 thread 만 늘어난다.
+ *     - 대기열이 가득 차면 기다리지 않고 RejectedExecutionException 으로 실패한다. (back-pressure)
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - Transaction 은 query 마다 따로 열리고 닫힌다.
+ *        - 돌려받은 entity 는 준영속 상태이므로 지연 로딩 (member.getTeam().getName() 등) 을 할 수 없다.
+ *        - 현재 thread 의 Transaction 에서 저장한 (commit 전) 데이터는 보이지 않는다.
+ *     - ThreadLocal 값 (AuditStamp, RequestContextHolder, QueryCounter) 은 전달되지 않는다.
+ * </pre>
+ */
+public class AsyncMemberRepository {
+
+  private final MemberRepository memberRepository;
+  private final ThreadPoolTaskExecutor executor;
+  private final TransactionTemplate readOnlyTransaction;
+
+  public AsyncMemberRepository(
+      MemberRepository memberRepository,
+      PlatformTransactionManager transactionManager,
+      ThreadPoolTaskExecutor executor) {
+    this.memberRepository = memberRepository;
+    this.executor = executor;
+
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  public CompletableFuture<Optional<Member>> findById(Long id) {
+    return readOnly(repository -> repository.findById(id));
+  }
+
+  public CompletableFuture<List<Member>> findByUsername(String username) {
+    return readOnly(repository -> repository.findByUsername(username));
+  }
+
+  public CompletableFuture<Page<Member>> findAll(Pageable pageable) {
+    return readOnly(repository -> repository.findAll(pageable));
+  }
+
+  public CompletableFuture<Page<MemberDto>> findMemberDtoPage(
+      Pageable pageable, CountStrategy strategy) {
+    return readOnly(repository -> repository.findMemberDtoPage(pageable, strategy));
+  }
+
+  /**
+   * 읽기 전용 Transaction 안에서 query 를 실행한다.
+   *
+   * <pre>
+   *     - 지연 로딩이 필요하면 query 안에서 DTO 로 바꿔서 돌려준다.
+   * </pre>
+   *
+   * @param query
+   * @return 거절된 경우 RejectedExecutionException 으로 실패한 future
+   */
+  public <T> CompletableFuture<T> readOnly(Function<MemberRepository, T> query) {
+    try {
+      return CompletableFuture.supplyAsync(
+          () -> readOnlyTransaction.execute(status -> query.apply(memberRepository)), executor);
+    } catch (RejectedExecutionException e) {
+      CompletableFuture<T> rejected = new CompletableFuture<>();
+      rejected.completeExceptionally(e);
+
+      return rejected;
+    }
+  }
+
+  /** bean 소멸 시 Spring 이 호출 (destroy method 추론) */
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
@@ -0,0 +1,39 @@
+package study.datajpa.repository.bulk;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/** chunk 별로 실행된 bulk 연산 결과 */
+public class BulkResult {
+
+  private final List<Integer> chunks = new ArrayList<>();
+
+  void add(int affectedRows) {
+    chunks.add(affectedRows);
+  }
+
+  /** chunk 별 변경된 row 수 - 실행 순서 */
+  public List<Integer> getChunks() {
+    return Collections.unmodifiableList(chunks);
+  }
+
+  public int getChunkCount() {
+    return chunks.size();
+  }
+
+  public int getTotal() {
+    int total = 0;
+
+    for (int rows : chunks) {
+      total += rows;
+    }
+
+    return total;
+  }
+
+  @Override
+  public String toString() {
+    return "BulkResult{" + "total=" + getTotal() + ", chunks=" + chunks + '}';
+  }
+}
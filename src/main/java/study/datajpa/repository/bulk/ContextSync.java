@@ -0,0 +1,11 @@
+package study.datajpa.repository.bulk;
+
+/** bulk 연산 후 Persistence Context 에 이미 있는 entity 처리 방법 */
+public enum ContextSync {
+
+  /** DB 에서 다시 읽어 최신 값으로 바꾼다. - 영속 상태 유지, entity 마다 select 1번 */
+  REFRESH,
+
+  /** 준영속 상태로 만든다. - 다음에 조회하면 DB 에서 다시 읽는다. */
+  DETACH
+}
@@ -0,0 +1,210 @@
+package study.datajpa.repository.bulk;
+
+import org.hibernate.action.spi.AfterTransactionCompletionProcess;
+import org.hibernate.cache.spi.CacheImplementor;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.persister.entity.EntityPersister;
+import org.hibernate.query.NativeQuery;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.auditing.AuditClock;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Member bulk 연산 - chunk 단위
+ *
+ * <pre>
+ *     - 대상 id 를 chunkSize 만큼씩 id 순서로 읽고, 그 id 들만 update / delete 한다.
+ *        - Transaction 밖에서 호출하면 chunk 마다 commit 한다. - lock 을 오래 잡지 않고, undo log 가 커지지 않는다.
+ *        - Transaction 안에서 호출하면 그 Transaction 에 참여한다. - 마지막에 한번에 commit
+ *     - @Modifying(clearAutomatically = true) 처럼 Persistence Context 전체를 비우지 않는다.
+ *        - 변경된 Member 중 이미 영속 상태인 것만 ContextSync 에 따라 다시 읽거나 준영속 상태로 만든다.
+ *     - 2차 cache 도 region 전체가 아닌 변경된 Member 만 비운다.
+ *        - delete 는 Team.members collection cache 도 해당 Team 만 비운다.
+ *        - member table 을 사용하는 query cache 는 무효화한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - JPQL bulk 연산은 Hibernate 가 Member region 전체를 비우므로 native SQL 을 사용한다.
+ *        - 없는 query space 를 지정해서, Hibernate 가 아무 region 도 비우지 않게 하고 직접 비운다.
+ *     - delete 후 이미 초기화된 Team.members (Persistence Context) 에는 삭제된 Member 가 남아있다.
+ * </pre>
+ */
+public class MemberBulkOperations {
+
+  /** Hibernate 가 bulk 연산 후 비울 region 을 찾지 못하도록 지정하는 query space */
+  private static final String DETACHED_QUERY_SPACE = "member_bulk";
+
+  private static final String TEAM_MEMBERS = Team.class.getName() + ".members";
+
+  private final EntityManager em;
+  private final TransactionTemplate transactionTemplate;
+
+  public MemberBulkOperations(EntityManager em, PlatformTransactionManager transactionManager) {
+    this.em = em;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+  }
+
+  /** age 이상인 Member 의 나이를 1 올린다. - MemberRepository.bulkAgePlus 의 chunk 버전 */
+  public BulkResult bulkAgePlus(int age, int chunkSize, ContextSync sync) {
+    return execute(
+        "where m.age >= :age",
+        age,
+        chunkSize,
+        (targets, ids) -> {
+          // 수정 시간도 같이 바꾼다. - ETag, Last-Modified
+          int rows =
+              nativeQuery(
+                      "update member set age = age + 1, version = version + 1, update_at = :now"
+                          + " where member_id in (:ids) and age >= :age",
+                      ids,
+                      age)
+                  .setParameter("now", AuditClock.now())
+                  .executeUpdate();
+
+          afterChange(ids, Collections.emptySet(), sync);
+          return rows;
+        });
+  }
+
+  /** age 이상인 Member 를 삭제한다. */
+  public BulkResult bulkDeleteByAgeGreaterThanEqual(int age, int chunkSize) {
+    return execute(
+        "where m.age >= :age",
+        age,
+        chunkSize,
+        (targets, ids) -> {
+          Set<Long> teamIds = new LinkedHashSet<>();
+
+          for (Object[] target : targets) {
+            if (target[1] != null) {
+              teamIds.add((Long) target[1]);
+            }
+          }
+
+          int rows =
+              nativeQuery("delete from member where member_id in (:ids) and age >= :age", ids, age)
+                  .executeUpdate();
+
+          afterChange(ids, teamIds, ContextSync.DETACH);
+          return rows;
+        });
+  }
+
+  private BulkResult execute(String where, int age, int chunkSize, ChunkOperation operation) {
+    if (chunkSize < 1) {
+      throw new IllegalArgumentException("chunk size must be greater than 0.");
+    }
+
+    BulkResult result = new BulkResult();
+    long[] lastId = {Long.MIN_VALUE};
+
+    while (true) {
+      Integer rows =
+          transactionTemplate.execute(
+              status -> {
+                List<Object[]> targets =
+                    em.createQuery(
+                            "select m.id, t.id from Member m left join m.team t "
+                                + where
+                                + " and m.id > :lastId order by m.id",
+                            Object[].class)
+                        .setParameter("age", age)
+                        .setParameter("lastId", lastId[0])
+                        .setMaxResults(chunkSize)
+                        .getResultList();
+
+                if (targets.isEmpty()) {
+                  return null;
+                }
+
+                List<Long> ids = new ArrayList<>(targets.size());
+
+                for (Object[] target : targets) {
+                  ids.add((Long) target[0]);
+                }
+
+                lastId[0] = ids.get(ids.size() - 1);
+
+                em.flush(); // native SQL 전에 변경 내용 반영
+                return operation.apply(targets, ids);
+              });
+
+      if (rows == null) {
+        return result;
+      }
+
+      result.add(rows);
+    }
+  }
+
+  private Query nativeQuery(String sql, List<Long> ids, int age) {
+    return em.createNativeQuery(sql)
+        .setParameter("ids", ids)
+        .setParameter("age", age)
+        .unwrap(NativeQuery.class)
+        .addSynchronizedQuerySpace(DETACHED_QUERY_SPACE);
+  }
+
+  /** 변경된 Member 만 Persistence Context, 2차 cache 에서 정리 */
+  private void afterChange(List<Long> ids, Set<Long> teamIds, ContextSync sync) {
+    SessionImplementor session = em.unwrap(SessionImplementor.class);
+    EntityPersister persister = session.getFactory().getMetamodel().entityPersister(Member.class);
+    CacheImplementor cache = session.getFactory().getCache();
+    String[] spaces =
+        Arrays.stream(persister.getQuerySpaces()).map(String::valueOf).toArray(String[]::new);
+
+    for (Long id : ids) {
+      Object managed =
+          session.getPersistenceContext().getEntity(session.generateEntityKey(id, persister));
+
+      if (managed != null) {
+        if (sync == ContextSync.REFRESH) {
+          em.refresh(managed);
+        } else {
+          em.detach(managed);
+        }
+      }
+    }
+
+    evict(cache, ids, teamIds);
+    cache.getTimestampsCache().preInvalidate(spaces, session);
+
+    // commit 전에 다른 Transaction 이 이전 값을 다시 cache 했을 수 있으므로, 끝난 후 한번 더 비운다.
+    session
+        .getActionQueue()
+        .registerProcess(
+            (AfterTransactionCompletionProcess)
+                (success, completedSession) -> {
+                  evict(cache, ids, teamIds);
+                  cache.getTimestampsCache().invalidate(spaces, completedSession);
+                });
+  }
+
+  private void evict(CacheImplementor cache, List<Long> ids, Set<Long> teamIds) {
+    for (Long id : ids) {
+      cache.evictEntityData(Member.class, id);
+    }
+
+    for (Long teamId : teamIds) {
+      cache.evictCollectionData(TEAM_MEMBERS, teamId);
+    }
+  }
+
+  @FunctionalInterface
+  private interface ChunkOperation {
+    int apply(List<Object[]> targets, List<Long> ids);
+  }
+}
@@ -0,0 +1,111 @@
+package study.datajpa.repository.coalesce;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.support.SingleFlight;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 같은 member 의 동시 조회를 query 하나로 합친다. - SingleFlight
+ *
+ * <pre>
+ *     - 같은 id (username) 로 실행 중인 조회가 있으면, 새로 query 를 실행하지 않고 그 결과를 같이 사용한다.
+ *     - 결과는 entity 가 아닌 MemberDto (불변) 이므로, 여러 요청이 같이 사용해도 안전하다.
+ *     - 처음 들어온 요청이 읽기 전용 Transaction 에서 조회한다.
+ *     - 지표 (Micrometer)
+ *        - repository.coalesce.calls (result=executed | coalesced) : coalesced / 전체 = 합쳐진 비율
+ *        - repository.coalesce.inflight : 실행 중인 조회 수
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 쓰기 Transaction 안에서는 합치지 않는다. - commit 전 변경 내용이 다른 요청에 보이면 안되므로
+ *     - 호출하는 쪽에서 Transaction 을 열지 않는 것이 좋다. - 기다리는 동안 connection 을 잡고 있게 된다.
+ * </pre>
+ */
+public class CoalescingMemberRepository implements MeterBinder {
+
+  private final MemberRepository memberRepository;
+  private final TransactionTemplate readOnlyTransaction;
+
+  private final SingleFlight<Long, Optional<MemberDto>> byId = new SingleFlight<>();
+  private final SingleFlight<String, List<MemberDto>> byUsername = new SingleFlight<>();
+
+  public CoalescingMemberRepository(
+      MemberRepository memberRepository, PlatformTransactionManager transactionManager) {
+    this.memberRepository = memberRepository;
+
+    this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+    this.readOnlyTransaction.setReadOnly(true);
+  }
+
+  public Optional<MemberDto> findById(Long id) {
+    return coalesce(
+        byId, id, () -> readOnly(() -> memberRepository.findById(id).map(MemberDto::new)));
+  }
+
+  public List<MemberDto> findByUsername(String username) {
+    return coalesce(
+        byUsername,
+        username,
+        () ->
+            readOnly(
+                () ->
+                    Collections.unmodifiableList(
+                        memberRepository.findByUsername(username).stream()
+                            .map(MemberDto::new)
+                            .collect(Collectors.toList()))));
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bind(registry, "findById", byId);
+    bind(registry, "findByUsername", byUsername);
+  }
+
+  private <K, V> V coalesce(SingleFlight<K, V> flight, K key, Supplier<V> loader) {
+    if (isInWriteTransaction()) {
+      return loader.get();
+    }
+
+    return flight.execute(key, loader);
+  }
+
+  private <V> V readOnly(Supplier<V> query) {
+    return readOnlyTransaction.execute(status -> query.get());
+  }
+
+  private static void bind(MeterRegistry registry, String method, SingleFlight<?, ?> flight) {
+    FunctionCounter.builder("repository.coalesce.calls", flight, SingleFlight::getExecuted)
+        .tag("method", method)
+        .tag("result", "executed")
+        .register(registry);
+
+    FunctionCounter.builder("repository.coalesce.calls", flight, SingleFlight::getCoalesced)
+        .tag("method", method)
+        .tag("result", "coalesced")
+        .register(registry);
+
+    Gauge.builder("repository.coalesce.inflight", flight, SingleFlight::getInFlight)
+        .tag("method", method)
+        .register(registry);
+  }
+
+  private static boolean isInWriteTransaction() {
+    return TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+}
@@ -0,0 +1,99 @@
+package study.datajpa.repository.count;
+
+import java.time.Duration;
+import java.util.OptionalLong;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * count 결과 cache
+ *
+ * <pre>
+ *     - (JPQL, parameter) 단위로 TTL 동안 보관한다.
+ *     - entity 단위로 무효화한다.
+ *     - 무효화 되기 전에 시작한 count 는 저장하지 않는다. - entity 별 generation 으로 확인
+ * </pre>
+ */
+public class CountCache {
+
+  private final ConcurrentMap<CountQuery.Key, Entry> entries = new ConcurrentHashMap<>();
+  private final ConcurrentMap<Class<?>, AtomicLong> generations = new ConcurrentHashMap<>();
+
+  private final long ttlNanos;
+  private final int maxEntries;
+
+  public CountCache(Duration ttl, int maxEntries) {
+    this.ttlNanos = ttl.toNanos();
+    this.maxEntries = maxEntries;
+  }
+
+  public OptionalLong get(CountQuery query) {
+    Entry entry = entries.get(query.getKey());
+
+    if (entry == null) {
+      return OptionalLong.empty();
+    }
+
+    if (entry.isExpired(System.nanoTime())) {
+      entries.remove(query.getKey(), entry);
+      return OptionalLong.empty();
+    }
+
+    return OptionalLong.of(entry.count);
+  }
+
+  /** count 를 실행하기 전에 가져와서 put() 에 넘긴다. */
+  public long generation(Class<?> entityType) {
+    return generationOf(entityType).get();
+  }
+
+  public void put(CountQuery query, long generation, long count) {
+    if (ttlNanos <= 0 || generation != generation(query.getEntityType())) {
+      return;
+    }
+
+    if (entries.size() >= maxEntries) {
+      evictExpired();
+
+      if (entries.size() >= maxEntries) {
+        entries.clear();
+      }
+    }
+
+    entries.put(query.getKey(), new Entry(count, System.nanoTime() + ttlNanos));
+  }
+
+  public void invalidate(Class<?> entityType) {
+    generationOf(entityType).incrementAndGet();
+    entries.keySet().removeIf(key -> key.getEntityType().equals(entityType));
+  }
+
+  public int size() {
+    return entries.size();
+  }
+
+  private void evictExpired() {
+    long now = System.nanoTime();
+    entries.values().removeIf(entry -> entry.isExpired(now));
+  }
+
+  private AtomicLong generationOf(Class<?> entityType) {
+    return generations.computeIfAbsent(entityType, type -> new AtomicLong());
+  }
+
+  private static final class Entry {
+
+    private final long count;
+    private final long expiresAt;
+
+    private Entry(long count, long expiresAt) {
+      this.count = count;
+      this.expiresAt = expiresAt;
+    }
+
+    private boolean isExpired(long now) {
+      return now - expiresAt >= 0;
+    }
+  }
+}
@@ -0,0 +1,54 @@
+package study.datajpa.repository.count;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import study.datajpa.entity.Member;
+
+/**
+ * Member 가 추가, 삭제, bulk 수정 되면 count cache 를 무효화
+ *
+ * <pre>
+ *     - Repository 호출 직후 무효화 - 같은 Transaction 안에서 바로 다시 조회하는 경우
+ *     - Transaction 이 끝난 후 한번 더 무효화 - commit 전에 다른 Transaction 이 이전 count 를 cache 한 경우
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - dirty checking 으로 조건 컬럼(age 등) 이 바뀌는 경우는 알 수 없다. - TTL 만큼 이전 count 가 보일 수 있음
+ * </pre>
+ */
+@Aspect
+public class CountCacheInvalidator {
+
+  private final CountCache countCache;
+
+  public CountCacheInvalidator(CountCache countCache) {
+    this.countCache = countCache;
+  }
+
+  @AfterReturning(
+      "(this(study.datajpa.repository.MemberRepository)"
+          + " || within(study.datajpa.repository.MemberJpaRepository)"
+          + " || within(study.datajpa.repository.bulk.MemberBulkOperations))"
+          + " && (execution(* save*(..)) || execution(* delete*(..)) || execution(* bulk*(..)))")
+  public void invalidateMember() {
+    invalidate(Member.class);
+  }
+
+  private void invalidate(Class<?> entityType) {
+    countCache.invalidate(entityType);
+
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(
+          new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+              countCache.invalidate(entityType);
+            }
+          });
+    }
+  }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.repository.count;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.count")
+public class CountProperties {
+
+  /** count cache 유지 시간 - 0 이면 cache 하지 않는다. */
+  private Duration cacheTtl = Duration.ofSeconds(30);
+
+  /** cache 할 count query 최대 개수 */
+  private int maxEntries = 1000;
+
+  /** content query 와 count query 를 동시에 실행 */
+  private boolean async = false;
+
+  /** async count 를 실행할 thread 수 */
+  private int asyncThreads = 4;
+
+  public Duration getCacheTtl() {
+    return cacheTtl;
+  }
+
+  public void setCacheTtl(Duration cacheTtl) {
+    this.cacheTtl = cacheTtl;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+
+  public boolean isAsync() {
+    return async;
+  }
+
+  public void setAsync(boolean async) {
+    this.async = async;
+  }
+
+  public int getAsyncThreads() {
+    return asyncThreads;
+  }
+
+  public void setAsyncThreads(int asyncThreads) {
+    this.asyncThreads = asyncThreads;
+  }
+}
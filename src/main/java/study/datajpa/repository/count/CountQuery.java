@@ -0,0 +1,107 @@
+package study.datajpa.repository.count;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * count query 정의
+ *
+ * <pre>
+ *     - JPQL 과 parameter 가 같으면 같은 count 로 보고 cache 한다.
+ *     - approximate 는 조건이 없는 count 에만 지정한다. - native query, 결과는 숫자 하나
+ * </pre>
+ */
+public class CountQuery {
+
+  private final Key key;
+  private final String approximateSql;
+
+  private CountQuery(Key key, String approximateSql) {
+    this.key = key;
+    this.approximateSql = approximateSql;
+  }
+
+  public static CountQuery of(Class<?> entityType, String jpql) {
+    return new CountQuery(new Key(entityType, jpql, Collections.emptyMap()), null);
+  }
+
+  public CountQuery param(String name, Object value) {
+    Map<String, Object> params = new LinkedHashMap<>(key.params);
+    params.put(name, value);
+
+    return new CountQuery(new Key(key.entityType, key.jpql, params), approximateSql);
+  }
+
+  public CountQuery approximate(String nativeSql) {
+    return new CountQuery(key, nativeSql);
+  }
+
+  long exact(EntityManager em) {
+    TypedQuery<Long> query = em.createQuery(key.jpql, Long.class);
+
+    for (Map.Entry<String, Object> param : key.params.entrySet()) {
+      query.setParameter(param.getKey(), param.getValue());
+    }
+
+    return query.getSingleResult();
+  }
+
+  long approximate(EntityManager em) {
+    Object result = em.createNativeQuery(approximateSql).getSingleResult();
+
+    return ((Number) result).longValue();
+  }
+
+  boolean hasApproximate() {
+    return approximateSql != null;
+  }
+
+  Key getKey() {
+    return key;
+  }
+
+  public Class<?> getEntityType() {
+    return key.entityType;
+  }
+
+  static final class Key {
+
+    private final Class<?> entityType;
+    private final String jpql;
+    private final Map<String, Object> params;
+
+    private Key(Class<?> entityType, String jpql, Map<String, Object> params) {
+      this.entityType = entityType;
+      this.jpql = jpql;
+      this.params = params;
+    }
+
+    Class<?> getEntityType() {
+      return entityType;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key other = (Key) o;
+      return entityType.equals(other.entityType)
+          && jpql.equals(other.jpql)
+          && params.equals(other.params);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(entityType, jpql, params);
+    }
+
+    @Override
+    public String toString() {
+      return jpql + " " + params;
+    }
+  }
+}
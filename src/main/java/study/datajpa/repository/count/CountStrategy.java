@@ -0,0 +1,16 @@
+package study.datajpa.repository.count;
+
+/**
+ * Pagination 의 count query 실행 전략
+ *
+ * <pre>
+ *     - EXACT : 매번 count query 를 실행한다. (Spring Data JPA 기본 동작)
+ *     - CACHED : count 결과를 TTL 동안 cache 한다. 저장, 삭제, bulk 연산 시 무효화된다.
+ *     - APPROXIMATE : DB 통계 정보의 추정치를 사용한다. 추정 query 가 없으면 CACHED 로 동작한다.
+ * </pre>
+ */
+public enum CountStrategy {
+  EXACT,
+  CACHED,
+  APPROXIMATE
+}
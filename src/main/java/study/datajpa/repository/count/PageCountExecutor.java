@@ -0,0 +1,134 @@
+package study.datajpa.repository.count;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+
+/**
+ * Page 의 count query 실행
+ *
+ * <pre>
+ *     - CountStrategy 에 따라 cache 된 count, 추정치, 실제 count 를 사용한다.
+ *     - async 인 경우 count query 를 다른 thread 에서 먼저 실행하고 content query 를 실행한다.
+ *        - 응답 시간이 content + count 가 아니라 max(content, count) 가 된다.
+ *     - 마지막 page 라서 content 만으로 total 을 알 수 있으면 count 를 사용하지 않는다. (PageableExecutionUtils)
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - async count 는 별도의 EntityManager(connection) 에서 실행되므로 commit 된 데이터만 보인다.
+ *     - 그래서 쓰기 Transaction 안에서는 async 로 실행하지 않는다.
+ *     - 추정치는 cache 하지 않는다. 같은 CountQuery 를 CACHED 로 조회하면 추정치가 totalElements 가 되기 때문이다.
+ * </pre>
+ */
+public class PageCountExecutor {
+
+  private final EntityManager em;
+  private final EntityManagerFactory emf;
+  private final CountCache countCache;
+  private final ThreadPoolTaskExecutor executor;
+  private final boolean async;
+
+  public PageCountExecutor(
+      EntityManager em,
+      EntityManagerFactory emf,
+      CountCache countCache,
+      ThreadPoolTaskExecutor executor,
+      boolean async) {
+    this.em = em;
+    this.emf = emf;
+    this.countCache = countCache;
+    this.executor = executor;
+    this.async = async;
+  }
+
+  public <T> Page<T> getPage(
+      Pageable pageable,
+      CountQuery countQuery,
+      CountStrategy strategy,
+      Supplier<List<T>> contentQuery) {
+
+    if (strategy != CountStrategy.EXACT) {
+      OptionalLong cached = countCache.get(countQuery);
+
+      if (cached.isPresent()) {
+        return PageableExecutionUtils.getPage(contentQuery.get(), pageable, cached::getAsLong);
+      }
+    }
+
+    if (!async || isInWriteTransaction()) {
+      return PageableExecutionUtils.getPage(
+          contentQuery.get(), pageable, () -> count(em, countQuery, strategy));
+    }
+
+    CompletableFuture<Long> count =
+        CompletableFuture.supplyAsync(() -> countInNewEntityManager(countQuery, strategy), executor);
+
+    List<T> content;
+
+    try {
+      content = contentQuery.get();
+    } catch (RuntimeException e) {
+      count.cancel(true);
+      throw e;
+    }
+
+    return PageableExecutionUtils.getPage(content, pageable, () -> join(count));
+  }
+
+  /** bean 소멸 시 Spring 이 호출 (destroy method 추론) */
+  public void shutdown() {
+    executor.shutdown();
+  }
+
+  private long countInNewEntityManager(CountQuery countQuery, CountStrategy strategy) {
+    EntityManager countEm = emf.createEntityManager();
+
+    try {
+      return count(countEm, countQuery, strategy);
+    } finally {
+      countEm.close();
+    }
+  }
+
+  private long count(EntityManager em, CountQuery countQuery, CountStrategy strategy) {
+    if (strategy == CountStrategy.APPROXIMATE && countQuery.hasApproximate()) {
+      return countQuery.approximate(em);
+    }
+
+    long generation = countCache.generation(countQuery.getEntityType());
+    long count = countQuery.exact(em);
+
+    countCache.put(countQuery, generation, count);
+
+    return count;
+  }
+
+  private static boolean isInWriteTransaction() {
+    return TransactionSynchronizationManager.isActualTransactionActive()
+        && !TransactionSynchronizationManager.isCurrentTransactionReadOnly();
+  }
+
+  private static long join(CompletableFuture<Long> count) {
+    try {
+      return count.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+
+      throw e;
+    }
+  }
+}
@@ -1,10 +1,175 @@
 package study.datajpa.repository.custom;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountStrategy;
+import study.datajpa.repository.keyset.KeysetWindow;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.support.MultiGetResult;
+import study.datajpa.repository.support.VersionStamp;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface MemberRepositoryCustom {
 
     List<Member> findMemberCustom();
+
+    /**
+     * findMemberCustom() 의 Stream 버전
+     *
+     * <pre>
+     *     - fetchSize 만큼씩 가져오고, 그만큼 읽을 때마다 Persistence Context 를 비운다.
+     *     - 반드시 Transaction 안에서 사용하고, 다 사용한 뒤 close() 해야한다.
+     * </pre>
+     *
+     * @param fetchSize
+     * @return
+     */
+    Stream<Member> streamMemberCustom(int fetchSize);
+
+    /**
+     * Batch Insert
+     *
+     * <pre>
+     *     - batchSize 만큼 persist 후 flush(), clear() 를 반복한다.
+     *     - hibernate.jdbc.batch_size 설정으로 insert 를 묶어서 보낸다.
+     *     - Persistence Context 를 계속 비우므로, 대량으로 넣어도 memory 가 늘어나지 않는다.
+     * </pre>
+     *
+     * ! 주의할 점
+     *
+     * <pre>
+     *     - 호출한 Transaction 의 Persistence Context 도 같이 비워진다. - 이전에 조회한 entity 는 준영속 상태가 됨
+     *     - batchSize 는 hibernate.jdbc.batch_size 와 맞추는 것이 좋다.
+     * </pre>
+     *
+     * @param members
+     * @param batchSize
+     * @return 저장한 member 수
+     */
+    int saveAllBatched(Iterable<Member> members, int batchSize);
+
+    /**
+     * 여러 id 를 한 번에 조회 - findById 반복 대신 사용
+     *
+     * <pre>
+     *     - 중복을 제거하고, Persistence Context, 2차 cache 에 없는 id 만 app.multi-get.batch-size 개씩 IN query 로 읽는다.
+     *     - 결과는 요청한 id 순서이고, 없는 id 는 getMissingIds() 로 알 수 있다.
+     * </pre>
+     *
+     * @param ids
+     * @return
+     */
+    MultiGetResult<Member, Long> multiGet(Collection<Long> ids);
+
+    /**
+     * Keyset pagination
+     *
+     * <pre>
+     *     - (username, member_id) 순으로 정렬하여 after 다음부터 size 만큼 가져온다.
+     *     - offset 을 사용하지 않으므로, 페이지가 깊어져도 앞의 row 를 읽고 버리지 않는다.
+     * </pre>
+     *
+     * @param after null 이면 첫 페이지
+     * @param size
+     * @return
+     */
+    KeysetWindow<Member> findKeyset(MemberKeyset after, int size);
+
+    KeysetWindow<Member> findKeysetByAge(int age, MemberKeyset after, int size);
+
+    /**
+     * Count 전략을 지정하는 Pagination
+     *
+     * <pre>
+     *     - findAll(Pageable) 과 같지만, count query 를 CountStrategy 에 따라 실행한다.
+     *     - app.count.async 가 true 이면 count query 를 content query 와 동시에 실행한다.
+     * </pre>
+     *
+     * @param pageable
+     * @param strategy
+     * @return
+     */
+    Page<Member> findAllCounted(Pageable pageable, CountStrategy strategy);
+
+    Page<Member> findByAgeCounted(int age, Pageable pageable, CountStrategy strategy);
+
+    /**
+     * 동적 Projection
+     *
+     * <pre>
+     *     - type 에 따라 필요한 column 만 select 한다. - ProjectionQueries
+     *     - 중첩 Closed Projection (NestedClosedProjections) 도 username, team.name 만 select 하고 entity 를 읽지 않는다.
+     * </pre>
+     *
+     * @param username
+     * @param type
+     * @param <T>
+     * @return
+     */
+    <T> List<T> findProjections3ByUsername(String username, Class<T> type);
+
+    /**
+     * MemberDto Pagination
+     *
+     * <pre>
+     *     - entity 를 읽지 않고 id, username, team.name 만 select 해서 MemberDto 생성자로 바로 매핑한다. - DtoMapper
+     *     - Persistence Context 에 entity 가 올라가지 않으므로, dirty checking / 변환 비용이 없다.
+     *     - count query 는 findAllCounted 와 같다.
+     * </pre>
+     *
+     * @param pageable sort 는 Member 의 속성 이름
+     * @param strategy
+     * @return
+     */
+    Page<MemberDto> findMemberDtoPage(Pageable pageable, CountStrategy strategy);
+
+    /**
+     * findMemberDtoPage 의 native query 버전
+     *
+     * <pre>
+     *     - interface Projection (findProjectionsByNativeQuery) 대신 MemberDto 로 바로 매핑한다. - row 마다 Proxy 를 만들지 않는다.
+     *     - DB 타입 (BigInteger 등) 은 생성자 parameter 타입으로 변환된다.
+     * </pre>
+     *
+     * @param pageable sort 는 MemberDto 의 속성 이름 (id, username, teamName)
+     * @return
+     */
+    Page<MemberDto> findMemberDtoPageByNativeQuery(Pageable pageable);
+
+    /**
+     * member 하나의 버전 - 조건부 GET (ETag, Last-Modified)
+     *
+     * <pre>
+     *     - entity 를 읽지 않고 version, updateAt 만 select 한다.
+     *     - ETag 는 id, version, updateAt 으로 만든다. - bulk 연산도 version, updateAt 을 바꾼다.
+     * </pre>
+     *
+     * @param id
+     * @return 없는 member 이면 empty
+     */
+    Optional<VersionStamp> findVersionStamp(Long id);
+
+    /**
+     * 전체 member 목록 (findMemberDtoPage) 의 버전 - 조건부 GET (ETag, Last-Modified)
+     *
+     * <pre>
+     *     - member, team 별로 count, sum(version), max(수정 시간) 만 select 한다. - 추가, 삭제, 수정이 있으면 바뀐다.
+     *     - 목록에 team 이름이 있으므로, team 이 바뀌어도 바뀐다.
+     * </pre>
+     *
+     * ! 주의할 점
+     *
+     * <pre>
+     *     - table 전체를 집계하므로, 큰 table 은 updateAt index 가 있어야 한다.
+     * </pre>
+     *
+     * @return
+     */
+    VersionStamp findMembersVersionStamp();
 }
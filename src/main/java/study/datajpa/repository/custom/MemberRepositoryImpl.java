@@ -1,9 +1,39 @@
 package study.datajpa.repository.custom;
 
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.dto.MemberDto;
 import study.datajpa.entity.Member;
+import study.datajpa.repository.count.CountQuery;
+import study.datajpa.repository.count.CountStrategy;
+import study.datajpa.repository.count.PageCountExecutor;
+import study.datajpa.repository.keyset.KeysetWindow;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.support.DtoMapper;
+import study.datajpa.repository.support.MultiGet;
+import study.datajpa.repository.support.MultiGetProperties;
+import study.datajpa.repository.support.MultiGetResult;
+import study.datajpa.repository.support.ProjectionQueries;
+import study.datajpa.repository.support.ScrollingStreams;
+import study.datajpa.repository.support.VersionStamp;
 
 import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.TypedQuery;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.StringJoiner;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * * 사용하는 이유
@@ -33,10 +63,43 @@ import java.util.List;
  */
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+  /** H2 - 통계 정보의 row 수 추정치 */
+  private static final String APPROXIMATE_COUNT_SQL =
+      "select row_count_estimate from information_schema.tables where table_name = 'MEMBER'";
+
+  private static final String MEMBER_DTO_JPQL =
+      "select m.id as id, m.username as username, t.name as teamName"
+          + " from Member m left join m.team t";
+
+  private static final String MEMBER_DTO_SQL =
+      "select m.member_id as id, m.username as username, t.name as teamName"
+          + " from member m left join team t on m.team_id = t.team_id";
+
+  private static final List<String> MEMBER_DTO_COLUMNS =
+      Arrays.asList("id", "username", "teamName");
+
+  /** native query 의 sort - MemberDto 속성 이름 : column */
+  private static final Map<String, String> MEMBER_DTO_SORT_COLUMNS = new HashMap<>();
+
+  static {
+    MEMBER_DTO_SORT_COLUMNS.put("id", "m.member_id");
+    MEMBER_DTO_SORT_COLUMNS.put("username", "m.username");
+    MEMBER_DTO_SORT_COLUMNS.put("teamName", "t.name");
+  }
+
   private final EntityManager em;
+  private final PageCountExecutor pageCountExecutor;
+  private final ProjectionQueries projectionQueries;
+  private final MultiGetProperties multiGetProperties;
 
-  public MemberRepositoryImpl(EntityManager em) {
+  public MemberRepositoryImpl(
+      EntityManager em,
+      PageCountExecutor pageCountExecutor,
+      MultiGetProperties multiGetProperties) {
     this.em = em;
+    this.pageCountExecutor = pageCountExecutor;
+    this.projectionQueries = new ProjectionQueries(em);
+    this.multiGetProperties = multiGetProperties;
   }
 
   @Override
@@ -44,4 +107,236 @@ public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
     return em.createQuery("select m from Member m", Member.class).getResultList();
   }
+
+  @Override
+  public Stream<Member> streamMemberCustom(int fetchSize) {
+    return ScrollingStreams.stream(
+        em, em.createQuery("select m from Member m order by m.id", Member.class), fetchSize);
+  }
+
+  @Override
+  @Transactional
+  public int saveAllBatched(Iterable<Member> members, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batch size must be greater than 0.");
+    }
+
+    int count = 0;
+
+    for (Member member : members) {
+      em.persist(member);
+
+      if (++count % batchSize == 0) {
+        em.flush();
+        em.clear();
+      }
+    }
+
+    em.flush();
+    em.clear();
+
+    return count;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public MultiGetResult<Member, Long> multiGet(Collection<Long> ids) {
+    return MultiGet.load(em, Member.class, ids, multiGetProperties.getBatchSize());
+  }
+
+  @Override
+  public KeysetWindow<Member> findKeyset(MemberKeyset after, int size) {
+    return findKeyset(null, after, size);
+  }
+
+  @Override
+  public KeysetWindow<Member> findKeysetByAge(int age, MemberKeyset after, int size) {
+    return findKeyset(age, after, size);
+  }
+
+  private KeysetWindow<Member> findKeyset(Integer age, MemberKeyset after, int size) {
+    if (size < 1) {
+      throw new IllegalArgumentException("size must be greater than 0.");
+    }
+
+    StringBuilder jpql = new StringBuilder("select m from Member m where 1 = 1");
+
+    if (age != null) {
+      jpql.append(" and m.age >= :age");
+    }
+
+    // ! (username, id) > (:username, :id) 를 풀어서 작성 - index(username, member_id) 를 탄다.
+    if (after != null) {
+      jpql.append(
+          " and (m.username > :username or (m.username = :username and m.id > :id))");
+    }
+
+    jpql.append(" order by m.username asc, m.id asc");
+
+    TypedQuery<Member> query = em.createQuery(jpql.toString(), Member.class);
+
+    if (age != null) {
+      query.setParameter("age", age);
+    }
+
+    if (after != null) {
+      query.setParameter("username", after.getUsername()).setParameter("id", after.getId());
+    }
+
+    List<Member> rows = query.setMaxResults(size + 1).getResultList();
+
+    return KeysetWindow.of(rows, size, member -> MemberKeyset.of(member).encode());
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<Member> findAllCounted(Pageable pageable, CountStrategy strategy) {
+    CountQuery countQuery =
+        CountQuery.of(Member.class, "select count(m) from Member m")
+            .approximate(APPROXIMATE_COUNT_SQL);
+
+    return pageCountExecutor.getPage(
+        pageable,
+        countQuery,
+        strategy,
+        () -> findContent("select m from Member m", null, pageable));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<Member> findByAgeCounted(int age, Pageable pageable, CountStrategy strategy) {
+    CountQuery countQuery =
+        CountQuery.of(Member.class, "select count(m) from Member m where m.age = :age")
+            .param("age", age);
+
+    return pageCountExecutor.getPage(
+        pageable,
+        countQuery,
+        strategy,
+        () -> findContent("select m from Member m where m.age = :age", age, pageable));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public <T> List<T> findProjections3ByUsername(String username, Class<T> type) {
+    return projectionQueries.find(
+        Member.class,
+        "m",
+        "m.username = :username",
+        Collections.singletonMap("username", username),
+        type);
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<MemberDto> findMemberDtoPage(Pageable pageable, CountStrategy strategy) {
+    CountQuery countQuery =
+        CountQuery.of(Member.class, "select count(m) from Member m")
+            .approximate(APPROXIMATE_COUNT_SQL);
+
+    return pageCountExecutor.getPage(
+        pageable,
+        countQuery,
+        strategy,
+        () ->
+            findMemberDtos(
+                em.createQuery(
+                    QueryUtils.applySorting(MEMBER_DTO_JPQL, pageable.getSort(), "m")),
+                pageable));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<MemberDto> findMemberDtoPageByNativeQuery(Pageable pageable) {
+    CountQuery countQuery = CountQuery.of(Member.class, "select count(m) from Member m");
+
+    return pageCountExecutor.getPage(
+        pageable,
+        countQuery,
+        CountStrategy.EXACT,
+        () ->
+            findMemberDtos(
+                em.createNativeQuery(MEMBER_DTO_SQL + nativeOrderBy(pageable.getSort())),
+                pageable));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Optional<VersionStamp> findVersionStamp(Long id) {
+    List<Object[]> rows =
+        em.createQuery(
+                "select m.version, m.updateAt from Member m where m.id = :id", Object[].class)
+            .setParameter("id", id)
+            .getResultList();
+
+    return rows.stream()
+        .findFirst()
+        .map(row -> VersionStamp.of((LocalDateTime) row[1], id, row[0], row[1]));
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public VersionStamp findMembersVersionStamp() {
+    Object[] members =
+        em.createQuery(
+                "select count(m), sum(m.version), max(m.updateAt) from Member m", Object[].class)
+            .getSingleResult();
+    Object[] teams =
+        em.createQuery(
+                "select count(t), sum(t.version), max(t.updatedDate) from Team t", Object[].class)
+            .getSingleResult();
+
+    LocalDateTime lastModified =
+        VersionStamp.latest((LocalDateTime) members[2], (LocalDateTime) teams[2]);
+
+    return VersionStamp.of(
+        lastModified, members[0], members[1], members[2], teams[0], teams[1], teams[2]);
+  }
+
+  private List<MemberDto> findMemberDtos(Query rows, Pageable pageable) {
+    DtoMapper<MemberDto> mapper = DtoMapper.of(MemberDto.class, MEMBER_DTO_COLUMNS);
+
+    if (pageable.isPaged()) {
+      rows.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+
+    List<?> result = rows.getResultList();
+
+    return result.stream().map(mapper::map).collect(Collectors.toList());
+  }
+
+  private String nativeOrderBy(Sort sort) {
+    if (sort.isUnsorted()) {
+      return " order by m.member_id";
+    }
+
+    StringJoiner orderBy = new StringJoiner(", ", " order by ", "");
+
+    for (Sort.Order order : sort) {
+      String column = MEMBER_DTO_SORT_COLUMNS.get(order.getProperty());
+
+      if (column == null) {
+        throw new IllegalArgumentException("cannot sort by " + order.getProperty());
+      }
+
+      orderBy.add(column + " " + order.getDirection().name().toLowerCase());
+    }
+
+    return orderBy.toString();
+  }
+
+  private List<Member> findContent(String jpql, Integer age, Pageable pageable) {
+    TypedQuery<Member> query =
+        em.createQuery(QueryUtils.applySorting(jpql, pageable.getSort(), "m"), Member.class);
+
+    if (age != null) {
+      query.setParameter("age", age);
+    }
+
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+
+    return query.getResultList();
+  }
 }
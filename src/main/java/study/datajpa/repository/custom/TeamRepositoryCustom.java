@@ -0,0 +1,19 @@
+package study.datajpa.repository.custom;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.datajpa.entity.Team;
+
+public interface TeamRepositoryCustom {
+
+  /**
+   * Team page + members fetch join
+   *
+   * <pre>
+   *     - id 를 먼저 paging 한 후, 그 Team 들만 members 와 fetch join 한다. - TwoPhasePaging
+   *     - 정렬은 Team 속성만 가능하다. (name, id ...)
+   *     - 반환 후에도 members 가 초기화되어 있으므로, Transaction 밖에서 사용해도 된다.
+   * </pre>
+   */
+  Page<Team> findPageFetchMembers(Pageable pageable);
+}
@@ -0,0 +1,47 @@
+package study.datajpa.repository.custom;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.count.CountQuery;
+import study.datajpa.repository.count.CountStrategy;
+import study.datajpa.repository.count.PageCountExecutor;
+import study.datajpa.repository.support.TwoPhasePaging;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+  private final EntityManager em;
+  private final PageCountExecutor pageCountExecutor;
+
+  public TeamRepositoryImpl(EntityManager em, PageCountExecutor pageCountExecutor) {
+    this.em = em;
+    this.pageCountExecutor = pageCountExecutor;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public Page<Team> findPageFetchMembers(Pageable pageable) {
+    return pageCountExecutor.getPage(
+        pageable,
+        CountQuery.of(Team.class, "select count(t) from Team t"),
+        CountStrategy.EXACT,
+        () -> {
+          List<Long> ids =
+              TwoPhasePaging.pageIds(em, "select t.id from Team t", "t", Long.class, pageable);
+
+          return TwoPhasePaging.fetchInOrder(ids, this::fetchMembers, Team::getId);
+        });
+  }
+
+  private List<Team> fetchMembers(List<Long> ids) {
+    return em.createQuery(
+            "select distinct t from Team t left join fetch t.members where t.id in :ids",
+            Team.class)
+        .setParameter("ids", ids)
+        .getResultList();
+  }
+}
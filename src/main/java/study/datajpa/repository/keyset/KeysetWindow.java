@@ -0,0 +1,76 @@
+package study.datajpa.repository.keyset;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset pagination 결과
+ *
+ * <pre>
+ *     - Slice 처럼 count query 를 실행하지 않는다.
+ *     - limit + 1 만큼 가져와 다음 페이지 여부를 판단한다.
+ *     - 다음 페이지는 page 번호 대신 nextCursor 를 넘겨 가져온다.
+ * </pre>
+ *
+ * @param <T>
+ */
+public class KeysetWindow<T> {
+
+  private final List<T> content;
+  private final String nextCursor;
+
+  public KeysetWindow(List<T> content, String nextCursor) {
+    this.content = Collections.unmodifiableList(new ArrayList<>(content));
+    this.nextCursor = nextCursor;
+  }
+
+  /**
+   * limit + 1 로 조회한 결과로 window 를 만든다.
+   *
+   * @param rows limit + 1 로 조회한 결과
+   * @param size 요청한 page size
+   * @param cursorOf 마지막 row 를 cursor token 으로 변환
+   */
+  public static <T> KeysetWindow<T> of(List<T> rows, int size, Function<T, String> cursorOf) {
+    if (rows.size() <= size) {
+      return new KeysetWindow<>(rows, null);
+    }
+
+    List<T> content = rows.subList(0, size);
+
+    return new KeysetWindow<>(content, cursorOf.apply(content.get(size - 1)));
+  }
+
+  public <U> KeysetWindow<U> map(Function<? super T, ? extends U> converter) {
+    List<U> converted = new ArrayList<>(content.size());
+
+    for (T t : content) {
+      converted.add(converter.apply(t));
+    }
+
+    return new KeysetWindow<>(converted, nextCursor);
+  }
+
+  public List<T> getContent() {
+    return content;
+  }
+
+  public int getSize() {
+    return content.size();
+  }
+
+  /** 다음 페이지가 없으면 null */
+  public String getNextCursor() {
+    return nextCursor;
+  }
+
+  public boolean isLast() {
+    return nextCursor == null;
+  }
+
+  public boolean hasNext() {
+    return nextCursor != null;
+  }
+}
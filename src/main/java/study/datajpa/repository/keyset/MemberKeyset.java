@@ -0,0 +1,98 @@
+package study.datajpa.repository.keyset;
+
+import study.datajpa.entity.Member;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Keyset (seek) pagination 의 위치
+ *
+ * <pre>
+ *     - 마지막으로 읽은 row 의 (username, member_id) 를 기억한다.
+ *     - 다음 페이지는 offset 이 아닌 where 조건으로 찾기 때문에, 몇 번째 페이지이든 index 를 타고 바로 찾아간다.
+ *     - client 에게는 encode() 한 opaque token 으로만 전달한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 정렬 기준은 반드시 unique 해야한다. - username 만으로는 중복될 수 있으므로 member_id 를 같이 사용
+ *     - username 이 null 인 row 는 keyset 비교에서 빠진다.
+ * </pre>
+ */
+public class MemberKeyset {
+
+  private static final char SEPARATOR = ':';
+
+  private final String username;
+  private final Long id;
+
+  public MemberKeyset(String username, Long id) {
+    if (username == null || id == null) {
+      throw new IllegalArgumentException("keyset requires username and id.");
+    }
+
+    this.username = username;
+    this.id = id;
+  }
+
+  public static MemberKeyset of(Member member) {
+    return new MemberKeyset(member.getUsername(), member.getId());
+  }
+
+  /**
+   * token 을 keyset 으로 변환
+   *
+   * @param token null 또는 빈 문자열이면 첫 페이지
+   * @return 첫 페이지인 경우 null
+   */
+  public static MemberKeyset decode(String token) {
+    if (token == null || token.isEmpty()) {
+      return null;
+    }
+
+    String decoded;
+
+    try {
+      decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("invalid cursor: " + token, e);
+    }
+
+    // ! username 에 ':' 가 들어갈 수 있으므로 id 를 앞에 둔다.
+    int index = decoded.indexOf(SEPARATOR);
+
+    if (index <= 0) {
+      throw new IllegalArgumentException("invalid cursor: " + token);
+    }
+
+    try {
+      return new MemberKeyset(
+          decoded.substring(index + 1), Long.parseLong(decoded.substring(0, index)));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("invalid cursor: " + token, e);
+    }
+  }
+
+  public String encode() {
+    String raw = id + String.valueOf(SEPARATOR) + username;
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public Long getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return "MemberKeyset{" + "username='" + username + '\'' + ", id=" + id + '}';
+  }
+}
@@ -0,0 +1,183 @@
+package study.datajpa.repository.slice;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.data.domain.Slice;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.async.AsyncMemberRepository;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 무한 scroll - 다음 slice 를 미리 조회 (prefetch)
+ *
+ * <pre>
+ *     - Slice 이므로 count query 를 실행하지 않는다. - size + 1 개를 읽어서 다음 slice 여부만 판단
+ *     - 다음 slice 가 있으면, 응답하는 동안 다음 slice 를 비동기로 미리 조회해서 client 별로 보관한다.
+ *        - client 가 다음 slice 를 요청하면 DB 를 기다리지 않고 바로 응답한다.
+ *        - 아직 조회 중이면 최대 maxWait 만큼만 기다린다. - 넘으면 직접 조회한다. (timeout)
+ *     - client 당 하나 (마지막으로 요청한 slice 의 다음) 만 보관하고, ttl 이 지나면 버린다.
+ *     - 지표 (Micrometer) : repository.slice.prefetch (result=hit | miss | timeout | rejected)
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 미리 조회한 slice 는 최대 ttl 만큼 이전 데이터이다.
+ *     - 미리 조회는 AsyncMemberRepository 의 pool 을 사용하고, pool 이 포화 상태이면 하지 않는다. (rejected)
+ *        - 대기열 뒤에 있는 미리 조회를 기다리면 직접 조회보다 느리고 요청 thread 를 잡고 있게 되므로, 오래 기다리지 않는다.
+ *     - offset 방식이므로 깊은 slice 는 느려진다. - 깊게 scroll 하는 화면은 keyset (members/keyset) 사용
+ * </pre>
+ */
+public class MemberSlicePrefetcher implements MeterBinder {
+
+  private final MemberRepository memberRepository;
+  private final AsyncMemberRepository asyncMemberRepository;
+  private final boolean enabled;
+  private final long maxWaitNanos;
+
+  /** client id : 미리 조회한 다음 slice */
+  private final Cache<String, Prefetch> prefetches;
+
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder timeouts = new LongAdder();
+  private final LongAdder rejected = new LongAdder();
+
+  public MemberSlicePrefetcher(
+      MemberRepository memberRepository,
+      AsyncMemberRepository asyncMemberRepository,
+      SlicePrefetchProperties properties) {
+    this.memberRepository = memberRepository;
+    this.asyncMemberRepository = asyncMemberRepository;
+    this.enabled = properties.isEnabled();
+    this.maxWaitNanos = properties.getMaxWait().toNanos();
+    this.prefetches =
+        Caffeine.newBuilder()
+            .expireAfterWrite(properties.getTtl())
+            .maximumSize(properties.getMaxEntries())
+            .build();
+  }
+
+  /**
+   * @param clientId null 이면 미리 조회하지 않는다.
+   * @param token
+   * @return
+   */
+  public Slice<MemberDto> findSlice(String clientId, MemberSliceToken token) {
+    boolean prefetch = enabled && clientId != null;
+
+    Slice<MemberDto> slice = prefetch ? takePrefetched(clientId, token) : null;
+
+    if (slice == null) {
+      slice = load(memberRepository, token);
+    }
+
+    if (prefetch && slice.hasNext()) {
+      prefetch(clientId, token.next());
+    }
+
+    return slice;
+  }
+
+  /** 미리 조회한 slice 를 사용한 횟수 */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /** 미리 조회한 slice 가 없거나, 다른 slice 를 요청한 횟수 */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /** 미리 조회가 maxWait 안에 끝나지 않아 직접 조회한 횟수 */
+  public long getTimeouts() {
+    return timeouts.sum();
+  }
+
+  /** pool 이 포화 상태라 미리 조회하지 못한 횟수 */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bind(registry, "hit", MemberSlicePrefetcher::getHits);
+    bind(registry, "miss", MemberSlicePrefetcher::getMisses);
+    bind(registry, "timeout", MemberSlicePrefetcher::getTimeouts);
+    bind(registry, "rejected", MemberSlicePrefetcher::getRejected);
+  }
+
+  private static Slice<MemberDto> load(MemberRepository repository, MemberSliceToken token) {
+    return repository
+        .findSliceByAge(token.getAge(), token.toPageable())
+        .map(MemberDto::new);
+  }
+
+  private Slice<MemberDto> takePrefetched(String clientId, MemberSliceToken token) {
+    Prefetch prefetch = prefetches.asMap().remove(clientId);
+
+    if (prefetch == null || !prefetch.token.equals(token)) {
+      misses.increment();
+      return null;
+    }
+
+    try {
+      Slice<MemberDto> slice = prefetch.slice.get(maxWaitNanos, TimeUnit.NANOSECONDS);
+      hits.increment();
+
+      return slice;
+    } catch (TimeoutException e) {
+      // 아직 대기열에 있거나 조회 중 - 기다리지 않고 직접 조회한다.
+      timeouts.increment();
+      return null;
+    } catch (ExecutionException e) {
+      // 미리 조회가 실패하면 다시 조회한다.
+      misses.increment();
+      return null;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      misses.increment();
+      return null;
+    }
+  }
+
+  private void prefetch(String clientId, MemberSliceToken next) {
+    CompletableFuture<Slice<MemberDto>> slice =
+        asyncMemberRepository.readOnly(repository -> load(repository, next));
+
+    if (slice.isCompletedExceptionally()) {
+      rejected.increment();
+      return;
+    }
+
+    prefetches.put(clientId, new Prefetch(next, slice));
+  }
+
+  private void bind(
+      MeterRegistry registry, String result, ToDoubleFunction<MemberSlicePrefetcher> count) {
+    FunctionCounter.builder("repository.slice.prefetch", this, count)
+        .tag("result", result)
+        .register(registry);
+  }
+
+  private static class Prefetch {
+
+    private final MemberSliceToken token;
+    private final CompletableFuture<Slice<MemberDto>> slice;
+
+    private Prefetch(MemberSliceToken token, CompletableFuture<Slice<MemberDto>> slice) {
+      this.token = token;
+      this.slice = slice;
+    }
+  }
+}
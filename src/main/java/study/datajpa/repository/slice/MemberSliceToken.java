@@ -0,0 +1,120 @@
+package study.datajpa.repository.slice;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Objects;
+
+/**
+ * 무한 scroll (Slice) 의 다음 위치 - findSliceByAge
+ *
+ * <pre>
+ *     - 조건 (age), page 번호, size 를 담는다. - client 는 다음 요청에 token 만 넘기면 된다.
+ *     - client 에게는 encode() 한 opaque token 으로만 전달한다.
+ *     - (username, id) 순으로 정렬한다. - keyset pagination 과 같은 순서
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - offset (page * size) 이 int 범위를 넘으면 생성할 수 없다. - Hibernate 의 firstResult 는 int
+ *        - token 은 client 가 조작할 수 있으므로, 서버 오류가 아닌 IllegalArgumentException (400) 이 되어야 한다.
+ * </pre>
+ */
+public final class MemberSliceToken {
+
+  private static final Sort SORT = Sort.by("username", "id");
+
+  private static final char SEPARATOR = ':';
+
+  private final int age;
+  private final int page;
+  private final int size;
+
+  public MemberSliceToken(int age, int page, int size) {
+    if (page < 0 || size < 1 || (long) page * size > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("invalid slice: page=" + page + ", size=" + size);
+    }
+
+    this.age = age;
+    this.page = page;
+    this.size = size;
+  }
+
+  /** 첫 번째 slice */
+  public static MemberSliceToken first(int age, int size) {
+    return new MemberSliceToken(age, 0, size);
+  }
+
+  public static MemberSliceToken decode(String token) {
+    String[] parts;
+
+    try {
+      parts =
+          new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8)
+              .split(String.valueOf(SEPARATOR));
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("invalid token: " + token, e);
+    }
+
+    if (parts.length != 3) {
+      throw new IllegalArgumentException("invalid token: " + token);
+    }
+
+    try {
+      return new MemberSliceToken(
+          Integer.parseInt(parts[0]), Integer.parseInt(parts[1]), Integer.parseInt(parts[2]));
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("invalid token: " + token, e);
+    }
+  }
+
+  public String encode() {
+    String raw = age + String.valueOf(SEPARATOR) + page + SEPARATOR + size;
+
+    return Base64.getUrlEncoder()
+        .withoutPadding()
+        .encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  public MemberSliceToken next() {
+    return new MemberSliceToken(age, page + 1, size);
+  }
+
+  public Pageable toPageable() {
+    return PageRequest.of(page, size, SORT);
+  }
+
+  public int getAge() {
+    return age;
+  }
+
+  public int getPage() {
+    return page;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (o == null || getClass() != o.getClass()) return false;
+    MemberSliceToken that = (MemberSliceToken) o;
+    return age == that.age && page == that.page && size == that.size;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(age, page, size);
+  }
+
+  @Override
+  public String toString() {
+    return "MemberSliceToken{" + "age=" + age + ", page=" + page + ", size=" + size + '}';
+  }
+}
@@ -0,0 +1,53 @@
+package study.datajpa.repository.slice;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.slice-prefetch")
+public class SlicePrefetchProperties {
+
+  /** 다음 slice 를 미리 조회 - client id (X-Client-Id) 가 있는 요청만 */
+  private boolean enabled = true;
+
+  /** 미리 조회한 slice 유지 시간 - 이 시간 안에 요청하지 않으면 버린다. */
+  private Duration ttl = Duration.ofSeconds(30);
+
+  /** 미리 조회가 아직 끝나지 않았을 때 기다리는 최대 시간 - 넘으면 기다리지 않고 직접 조회한다. */
+  private Duration maxWait = Duration.ofMillis(50);
+
+  /** 보관할 최대 slice 수 - client 당 하나 */
+  private int maxEntries = 10_000;
+
+  public boolean isEnabled() {
+    return enabled;
+  }
+
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+
+  public Duration getTtl() {
+    return ttl;
+  }
+
+  public void setTtl(Duration ttl) {
+    this.ttl = ttl;
+  }
+
+  public Duration getMaxWait() {
+    return maxWait;
+  }
+
+  public void setMaxWait(Duration maxWait) {
+    this.maxWait = maxWait;
+  }
+
+  public int getMaxEntries() {
+    return maxEntries;
+  }
+
+  public void setMaxEntries(int maxEntries) {
+    this.maxEntries = maxEntries;
+  }
+}
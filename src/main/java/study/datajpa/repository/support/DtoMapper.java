@@ -0,0 +1,194 @@
+package study.datajpa.repository.support;
+
+import org.springframework.core.DefaultParameterNameDiscoverer;
+import org.springframework.core.ParameterNameDiscoverer;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.NumberUtils;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 조회 결과 row (Object[]) 를 DTO 생성자로 바로 매핑한다.
+ *
+ * <pre>
+ *     - column alias 와 생성자 parameter 이름이 같은 생성자를 찾는다. - 순서는 달라도 된다.
+ *     - 생성자는 MethodHandle 로 만들어 두고, row 마다 Reflection / Proxy 없이 호출한다.
+ *     - native query 는 DB 타입 그대로 넘어오므로 (BigInteger, Integer ...) parameter 타입으로 변환한다.
+ *     - 매핑 계획 (생성자, column 순서, 변환) 은 (DTO type, column 목록) 별로 한 번만 만든다.
+ *        - query 가 아닌 column 목록으로 구분하므로, 정렬 조건이 다른 query 도 같은 계획을 사용한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - parameter 이름은 class 파일의 debug 정보 (또는 -parameters) 에서 읽는다.
+ *     - 이름이 맞는 생성자가 없으면 IllegalArgumentException - column 순서대로 넣으면 값이 다른 field 에 들어갈 수 있다.
+ * </pre>
+ *
+ * @param <T> DTO type
+ */
+public final class DtoMapper<T> {
+
+  private static final ConcurrentMap<Key, DtoMapper<?>> PLANS = new ConcurrentHashMap<>();
+
+  private static final ParameterNameDiscoverer PARAMETER_NAMES =
+      new DefaultParameterNameDiscoverer();
+
+  private final Class<T> type;
+  private final MethodHandle constructor;
+  private final int[] columnIndexes;
+  private final Class<?>[] parameterTypes;
+
+  private DtoMapper(Class<T> type, Constructor<?> constructor, int[] columnIndexes) {
+    this.type = type;
+    this.columnIndexes = columnIndexes;
+    this.parameterTypes = new Class<?>[columnIndexes.length];
+
+    Class<?>[] types = constructor.getParameterTypes();
+
+    for (int i = 0; i < types.length; i++) {
+      parameterTypes[i] = ClassUtils.resolvePrimitiveIfNecessary(types[i]);
+    }
+
+    try {
+      ReflectionUtils.makeAccessible(constructor);
+
+      this.constructor =
+          MethodHandles.lookup()
+              .unreflectConstructor(constructor)
+              .asType(MethodType.genericMethodType(types.length))
+              .asSpreader(Object[].class, types.length);
+    } catch (IllegalAccessException e) {
+      throw new IllegalStateException("cannot access constructor of " + type.getName(), e);
+    }
+  }
+
+  /**
+   * 매핑 계획 조회 - 없으면 만들어서 cache 한다.
+   *
+   * @param type DTO type
+   * @param columns select 절 column alias (순서대로)
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> DtoMapper<T> of(Class<T> type, List<String> columns) {
+    return (DtoMapper<T>)
+        PLANS.computeIfAbsent(new Key(type, columns), key -> create(type, key.columns));
+  }
+
+  private static <T> DtoMapper<T> create(Class<T> type, List<String> columns) {
+    for (Constructor<?> constructor : type.getDeclaredConstructors()) {
+      if (constructor.getParameterCount() != columns.size()) {
+        continue;
+      }
+
+      String[] names = PARAMETER_NAMES.getParameterNames(constructor);
+
+      if (names == null) {
+        continue;
+      }
+
+      int[] indexes = indexesByName(names, columns);
+
+      if (indexes != null) {
+        return new DtoMapper<>(type, constructor, indexes);
+      }
+    }
+
+    throw new IllegalArgumentException(
+        "no constructor of " + type.getName() + " has parameters named " + columns);
+  }
+
+  /** parameter 순서대로 column index - 이름이 하나라도 없으면 null */
+  private static int[] indexesByName(String[] names, List<String> columns) {
+    int[] indexes = new int[names.length];
+
+    for (int i = 0; i < names.length; i++) {
+      indexes[i] = -1;
+
+      for (int column = 0; column < columns.size(); column++) {
+        if (names[i].equalsIgnoreCase(columns.get(column))) {
+          indexes[i] = column;
+          break;
+        }
+      }
+
+      if (indexes[i] < 0) {
+        return null;
+      }
+    }
+
+    return indexes;
+  }
+
+  /**
+   * @param row 조회 결과 - column 이 하나면 Object[] 가 아닐 수 있다.
+   */
+  public T map(Object row) {
+    Object[] values = row instanceof Object[] ? (Object[]) row : new Object[] {row};
+    Object[] arguments = new Object[columnIndexes.length];
+
+    for (int i = 0; i < arguments.length; i++) {
+      arguments[i] = convert(values[columnIndexes[i]], parameterTypes[i]);
+    }
+
+    try {
+      return type.cast((Object) constructor.invokeExact(arguments));
+    } catch (RuntimeException | Error e) {
+      throw e;
+    } catch (Throwable e) {
+      throw new IllegalStateException("failed to create " + type.getName(), e);
+    }
+  }
+
+  @SuppressWarnings("unchecked")
+  private static Object convert(Object value, Class<?> target) {
+    if (value == null || target.isInstance(value)) {
+      return value;
+    }
+
+    if (value instanceof Number && Number.class.isAssignableFrom(target)) {
+      return NumberUtils.convertNumberToTargetClass(
+          (Number) value, (Class<? extends Number>) target);
+    }
+
+    ConversionService conversionService = DefaultConversionService.getSharedInstance();
+
+    return conversionService.convert(value, target);
+  }
+
+  private static final class Key {
+
+    private final Class<?> type;
+    private final List<String> columns;
+
+    private Key(Class<?> type, List<String> columns) {
+      this.type = type;
+      this.columns = Collections.unmodifiableList(new ArrayList<>(columns));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) return true;
+      if (!(o instanceof Key)) return false;
+      Key key = (Key) o;
+      return type.equals(key.type) && columns.equals(key.columns);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(type, columns);
+    }
+  }
+}
@@ -0,0 +1,120 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.engine.spi.EntityEntry;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.engine.spi.PersistenceContext;
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.engine.spi.Status;
+import org.hibernate.persister.entity.EntityPersister;
+
+import javax.persistence.Cache;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 여러 id 를 한 번에 조회 (multi-get)
+ *
+ * <pre>
+ *     - findById 를 N 번 호출하면 query 도 N 번 실행된다.
+ *     - 중복을 제거하고, 아래 순서로 찾는다.
+ *        1. Persistence Context - 이미 읽은 entity, query 없음
+ *        2. 2차 cache - query 없음
+ *        3. 나머지 id 를 batchSize 개씩 나눠 IN query - query ceil(N / batchSize) 번
+ *     - IN 절 하나에 넣는 id 는 최대 SubselectFetchAspect.maxInSize 개 (Oracle 등 DB 제한 1000)
+ *        - in_clause_parameter_padding 을 켜면 parameter 수가 2 의 거듭제곱으로 늘어나므로 512
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - Transaction 안에서 실행해야 한다. - Persistence Context 를 확인해야 하므로
+ *     - Persistence Context 에서 삭제된 entity (em.remove) 는 없는 id 로 본다. - em.find 와 같다.
+ *     - hibernate.query.in_clause_parameter_padding 을 켜면, 크기가 다른 IN 절도 query plan 을 재사용한다.
+ * </pre>
+ */
+public final class MultiGet {
+
+  private MultiGet() {}
+
+  public static <T, ID> MultiGetResult<T, ID> load(
+      EntityManager em, Class<T> type, Collection<ID> ids, int batchSize) {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("batch size must be greater than 0.");
+    }
+
+    List<ID> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+
+    if (distinct.contains(null)) {
+      throw new IllegalArgumentException("ids must not contain null.");
+    }
+
+    SessionImplementor session = em.unwrap(SessionImplementor.class);
+    EntityPersister persister = session.getFactory().getMetamodel().entityPersister(type);
+    PersistenceContext persistenceContext = session.getPersistenceContext();
+    Cache cache = em.getEntityManagerFactory().getCache();
+    boolean cacheEnabled = persister.canReadFromCache() && session.getCacheMode().isGetEnabled();
+
+    Map<ID, T> entities = new HashMap<>();
+    List<ID> pending = new ArrayList<>();
+
+    for (ID id : distinct) {
+      EntityKey key = session.generateEntityKey((Serializable) id, persister);
+      Object managed = persistenceContext.getEntity(key);
+
+      if (managed != null) {
+        if (!isRemoved(persistenceContext.getEntry(managed))) {
+          entities.put(id, type.cast(managed));
+        }
+      } else if (cacheEnabled && cache.contains(type, id)) {
+        T cached = em.find(type, id);
+
+        if (cached != null) {
+          entities.put(id, cached);
+        }
+      } else {
+        pending.add(id);
+      }
+    }
+
+    int queryCount = 0;
+
+    if (!pending.isEmpty()) {
+      PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+
+      String jpql =
+          "select e from "
+              + em.getMetamodel().entity(type).getName()
+              + " e where e."
+              + persister.getIdentifierPropertyName()
+              + " in :ids";
+
+      int size = Math.min(batchSize, SubselectFetchAspect.maxInSize(em));
+
+      for (int from = 0; from < pending.size(); from += size) {
+        List<ID> chunk = pending.subList(from, Math.min(from + size, pending.size()));
+
+        for (T entity : em.createQuery(jpql, type).setParameter("ids", chunk).getResultList()) {
+          @SuppressWarnings("unchecked")
+          ID id = (ID) util.getIdentifier(entity);
+
+          entities.put(id, entity);
+        }
+
+        queryCount++;
+      }
+    }
+
+    return new MultiGetResult<>(distinct, entities, queryCount);
+  }
+
+  private static boolean isRemoved(EntityEntry entry) {
+    return entry != null && (entry.getStatus() == Status.DELETED || entry.getStatus() == Status.GONE);
+  }
+}
@@ -0,0 +1,18 @@
+package study.datajpa.repository.support;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@ConfigurationProperties(prefix = "app.multi-get")
+public class MultiGetProperties {
+
+  /** IN query 하나에 넣을 id 수 - 최대 1000 (IN 절 제한), in_clause_parameter_padding 을 켜면 최대 512 */
+  private int batchSize = 100;
+
+  public int getBatchSize() {
+    return batchSize;
+  }
+
+  public void setBatchSize(int batchSize) {
+    this.batchSize = batchSize;
+  }
+}
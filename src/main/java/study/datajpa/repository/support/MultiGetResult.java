@@ -0,0 +1,74 @@
+package study.datajpa.repository.support;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * 여러 id 조회 결과 - MultiGet
+ *
+ * <pre>
+ *     - 요청한 id 순서 (중복 제거) 를 유지한다.
+ *     - 없는 id 는 null 대신 missingIds 로 알려준다.
+ * </pre>
+ */
+public class MultiGetResult<T, ID> {
+
+  private final List<ID> ids;
+  private final Map<ID, T> entities;
+  private final int queryCount;
+
+  MultiGetResult(List<ID> ids, Map<ID, T> entities, int queryCount) {
+    this.ids = Collections.unmodifiableList(ids);
+    this.entities = Collections.unmodifiableMap(entities);
+    this.queryCount = queryCount;
+  }
+
+  /** 찾은 entity - 요청한 id 순서 */
+  public List<T> getFound() {
+    List<T> found = new ArrayList<>(entities.size());
+
+    for (ID id : ids) {
+      T entity = entities.get(id);
+
+      if (entity != null) {
+        found.add(entity);
+      }
+    }
+
+    return found;
+  }
+
+  /** 없는 id - 요청한 id 순서 */
+  public List<ID> getMissingIds() {
+    List<ID> missing = new ArrayList<>();
+
+    for (ID id : ids) {
+      if (!entities.containsKey(id)) {
+        missing.add(id);
+      }
+    }
+
+    return missing;
+  }
+
+  public Optional<T> get(ID id) {
+    return Optional.ofNullable(entities.get(id));
+  }
+
+  /** 중복을 제거한 요청 id */
+  public List<ID> getIds() {
+    return ids;
+  }
+
+  public boolean isComplete() {
+    return entities.size() == ids.size();
+  }
+
+  /** 실행한 IN query 수 - Persistence Context, 2차 cache 에서 모두 찾으면 0 */
+  public int getQueryCount() {
+    return queryCount;
+  }
+}
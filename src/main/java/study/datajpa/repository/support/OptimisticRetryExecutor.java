@@ -0,0 +1,170 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.hibernate.StaleStateException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.OptimisticLockException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * Optimistic Lock 충돌 시 재시도
+ *
+ * <pre>
+ *     - 시도할 때마다 새로운 Transaction 에서 실행한다. - 다시 조회해야 최신 version 을 가져온다.
+ *     - 충돌하면 backoff 만큼 대기 후 다시 실행한다. (exponential backoff + jitter)
+ *     - row lock 을 잡지 않으므로, 같은 member 를 동시에 수정해도 서로 기다리지 않는다.
+ *     - 지표 (Micrometer)
+ *        - repository.retry.calls (result=execution | attempt | conflict | exhausted)
+ *        - repository.retry.conflict.rate : 시도 중 충돌한 비율 - 높으면 재시도보다 Pessimistic Lock 이 나을 수 있다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - action 은 여러번 실행될 수 있으므로, 조회부터 수정까지 모두 action 안에 있어야 한다.
+ *     - 바깥 Transaction 과 별개로 commit 된다. (REQUIRES_NEW)
+ * </pre>
+ */
+public class OptimisticRetryExecutor implements MeterBinder {
+
+  private final TransactionTemplate transactionTemplate;
+  private final RetryProperties properties;
+
+  private final LongAdder executions = new LongAdder();
+  private final LongAdder attempts = new LongAdder();
+  private final LongAdder conflicts = new LongAdder();
+  private final LongAdder exhausted = new LongAdder();
+
+  public OptimisticRetryExecutor(
+      PlatformTransactionManager transactionManager, RetryProperties properties) {
+    if (properties.getMaxAttempts() < 1) {
+      throw new IllegalArgumentException("max attempts must be greater than 0.");
+    }
+
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
+    this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+    this.properties = properties;
+  }
+
+  public <T> T execute(Supplier<T> action) {
+    executions.increment();
+
+    long backoffNanos = properties.getInitialBackoff().toNanos();
+
+    for (int attempt = 1; ; attempt++) {
+      attempts.increment();
+
+      try {
+        return transactionTemplate.execute(status -> action.get());
+      } catch (RuntimeException e) {
+        if (!isConflict(e)) {
+          throw e;
+        }
+
+        conflicts.increment();
+
+        if (attempt >= properties.getMaxAttempts()) {
+          exhausted.increment();
+          throw e;
+        }
+
+        sleep(backoffNanos, e);
+
+        backoffNanos =
+            Math.min(
+                (long) (backoffNanos * properties.getMultiplier()),
+                properties.getMaxBackoff().toNanos());
+      }
+    }
+  }
+
+  public void execute(Runnable action) {
+    execute(
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  /** execute() 호출 횟수 */
+  public long getExecutions() {
+    return executions.sum();
+  }
+
+  /** 재시도를 포함한 전체 시도 횟수 */
+  public long getAttempts() {
+    return attempts.sum();
+  }
+
+  /** Optimistic Lock 충돌 횟수 */
+  public long getConflicts() {
+    return conflicts.sum();
+  }
+
+  /** 최대 시도 횟수를 넘겨 실패한 횟수 */
+  public long getExhausted() {
+    return exhausted.sum();
+  }
+
+  /** 시도 중 충돌한 비율 */
+  public double getConflictRate() {
+    long attempts = getAttempts();
+    return attempts == 0 ? 0.0 : (double) getConflicts() / attempts;
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    bind(registry, "execution", OptimisticRetryExecutor::getExecutions);
+    bind(registry, "attempt", OptimisticRetryExecutor::getAttempts);
+    bind(registry, "conflict", OptimisticRetryExecutor::getConflicts);
+    bind(registry, "exhausted", OptimisticRetryExecutor::getExhausted);
+
+    Gauge.builder("repository.retry.conflict.rate", this, OptimisticRetryExecutor::getConflictRate)
+        .register(registry);
+  }
+
+  private void bind(
+      MeterRegistry registry, String result, ToDoubleFunction<OptimisticRetryExecutor> count) {
+    FunctionCounter.builder("repository.retry.calls", this, count)
+        .tag("result", result)
+        .register(registry);
+  }
+
+  private static boolean isConflict(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof OptimisticLockingFailureException
+          || t instanceof OptimisticLockException
+          || t instanceof StaleStateException) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  /** 여러 thread 가 같은 시점에 다시 충돌하지 않도록 0 ~ backoff 사이에서 대기한다. */
+  private static void sleep(long backoffNanos, RuntimeException conflict) {
+    if (backoffNanos <= 0) {
+      return;
+    }
+
+    try {
+      TimeUnit.NANOSECONDS.sleep(ThreadLocalRandom.current().nextLong(backoffNanos + 1));
+    } catch (InterruptedException interrupted) {
+      Thread.currentThread().interrupt();
+      throw conflict;
+    }
+  }
+}
@@ -0,0 +1,242 @@
+package study.datajpa.repository.support;
+
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.mapping.PreferredConstructor;
+import org.springframework.data.mapping.model.PreferredConstructorDiscoverer;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.ProjectionInformation;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import java.beans.PropertyDescriptor;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * 동적 Projection 조회 - 필요한 column 만 select
+ *
+ * <pre>
+ *     - 중첩 Closed Projection (interface) : 중첩된 속성까지 column 만 tuple 로 select 하고, Map 으로 조립해서 Proxy 를 만든다.
+ *        - ex:) NestedClosedProjections - select m.username, t.name from Member m left join m.team t
+ *        - entity 를 Persistence Context 에 올리지 않는다.
+ *        - 중첩된 속성 값이 모두 null 이면 (left join 대상이 없으면) 중첩 Projection 도 null
+ *     - Class (DTO) : 생성자 parameter 이름의 column 만 select 하고, DtoMapper 로 생성자를 바로 호출한다.
+ *     - entity, Open Projection (@Value), collection 속성이 있는 Projection : entity 를 조회한다.
+ * </pre>
+ */
+public class ProjectionQueries {
+
+  private final EntityManager em;
+  private final ProjectionFactory projectionFactory = new SpelAwareProxyProjectionFactory();
+
+  public ProjectionQueries(EntityManager em) {
+    this.em = em;
+  }
+
+  /**
+   * @param domainType 조회할 entity
+   * @param alias where 에서 사용할 entity alias
+   * @param where "where" 뒤에 올 조건 - alias 를 사용
+   * @param parameters where 의 parameter
+   * @param type 반환 type
+   */
+  public <T> List<T> find(
+      Class<?> domainType,
+      String alias,
+      String where,
+      Map<String, ?> parameters,
+      Class<T> type) {
+
+    String from = " from " + entityName(domainType) + " " + alias;
+
+    if (type.isAssignableFrom(domainType)) {
+      return bind(em.createQuery("select " + alias + from + " where " + where, type), parameters)
+          .getResultList();
+    }
+
+    if (type.isInterface()) {
+      List<String> paths = closedPaths(type, "");
+
+      if (paths == null) {
+        String jpql = "select " + alias + from + " where " + where;
+
+        return bind(em.createQuery(jpql, domainType), parameters).getResultList().stream()
+            .map(entity -> projectionFactory.createProjection(type, entity))
+            .collect(Collectors.toList());
+      }
+
+      return findTuples(from, alias, where, parameters, paths).stream()
+          .map(values -> projectionFactory.createProjection(type, values))
+          .collect(Collectors.toList());
+    }
+
+    PreferredConstructor<T, ?> constructor = PreferredConstructorDiscoverer.discover(type);
+
+    if (constructor == null) {
+      throw new IllegalArgumentException("no constructor found for projection " + type.getName());
+    }
+
+    List<String> columns =
+        constructor.getParameters().stream()
+            .map(PreferredConstructor.Parameter::getName)
+            .collect(Collectors.toList());
+
+    String select =
+        columns.stream().map(column -> alias + "." + column).collect(Collectors.joining(", "));
+    String jpql = "select " + select + from + " where " + where;
+
+    DtoMapper<T> mapper = DtoMapper.of(type, columns);
+    List<?> rows = bind(em.createQuery(jpql), parameters).getResultList();
+
+    return rows.stream().map(mapper::map).collect(Collectors.toList());
+  }
+
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  private List<Map<String, Object>> findTuples(
+      String from, String alias, String where, Map<String, ?> parameters, List<String> paths) {
+
+    Map<String, String> joins = new LinkedHashMap<>();
+    List<String> select = new ArrayList<>();
+
+    for (int i = 0; i < paths.size(); i++) {
+      String path = paths.get(i);
+      int last = path.lastIndexOf('.');
+
+      String owner = last < 0 ? alias : join(joins, alias, path.substring(0, last));
+
+      select.add(owner + "." + path.substring(last + 1) + " as p" + i);
+    }
+
+    StringBuilder jpql = new StringBuilder("select ");
+    jpql.append(String.join(", ", select)).append(from);
+
+    joins.forEach(
+        (path, joinAlias) -> {
+          int last = path.lastIndexOf('.');
+          String owner = last < 0 ? alias : joins.get(path.substring(0, last));
+          String property = path.substring(last + 1);
+
+          jpql.append(" left join ").append(owner).append('.').append(property);
+          jpql.append(' ').append(joinAlias);
+        });
+
+    jpql.append(" where ").append(where);
+
+    List<Map<String, Object>> rows = new ArrayList<>();
+
+    TypedQuery<Tuple> query = bind(em.createQuery(jpql.toString(), Tuple.class), parameters);
+
+    for (Tuple tuple : query.getResultList()) {
+      Map<String, Object> row = new LinkedHashMap<>();
+
+      for (int i = 0; i < paths.size(); i++) {
+        put(row, paths.get(i), tuple.get("p" + i));
+      }
+
+      row.replaceAll((name, value) -> value instanceof Map ? removeEmpty((Map) value) : value);
+      rows.add(row);
+    }
+
+    return rows;
+  }
+
+  /** 중첩 경로의 join alias - 상위 경로부터 순서대로 등록한다. */
+  private String join(Map<String, String> joins, String alias, String path) {
+    int last = path.lastIndexOf('.');
+
+    if (last >= 0) {
+      join(joins, alias, path.substring(0, last));
+    }
+
+    return joins.computeIfAbsent(path, key -> "j" + joins.size());
+  }
+
+  /**
+   * Closed Projection 의 속성 경로 - 중첩 Projection 은 "team.name" 처럼 펼친다.
+   *
+   * @return Open Projection 이거나 collection 속성이 있으면 null
+   */
+  private List<String> closedPaths(Class<?> type, String prefix) {
+    ProjectionInformation information = projectionFactory.getProjectionInformation(type);
+
+    if (!information.isClosed()) {
+      return null;
+    }
+
+    List<String> paths = new ArrayList<>();
+
+    for (PropertyDescriptor descriptor : information.getInputProperties()) {
+      Class<?> propertyType = descriptor.getPropertyType();
+
+      if (Collection.class.isAssignableFrom(propertyType)
+          || Map.class.isAssignableFrom(propertyType)) {
+        return null;
+      }
+
+      if (isNestedProjection(propertyType)) {
+        List<String> nested = closedPaths(propertyType, prefix + descriptor.getName() + ".");
+
+        if (nested == null) {
+          return null;
+        }
+
+        paths.addAll(nested);
+      } else {
+        paths.add(prefix + descriptor.getName());
+      }
+    }
+
+    return paths;
+  }
+
+  private boolean isNestedProjection(Class<?> propertyType) {
+    return propertyType.isInterface()
+        && !BeanUtils.isSimpleValueType(propertyType)
+        && !propertyType.getName().startsWith("java.");
+  }
+
+  @SuppressWarnings("unchecked")
+  private void put(Map<String, Object> row, String path, Object value) {
+    String[] names = path.split("\\.");
+    Map<String, Object> current = row;
+
+    for (int i = 0; i < names.length - 1; i++) {
+      current =
+          (Map<String, Object>) current.computeIfAbsent(names[i], key -> new LinkedHashMap<>());
+    }
+
+    current.put(names[names.length - 1], value);
+  }
+
+  /** 값이 모두 null 인 중첩 Map 은 null 로 바꾼다. - left join 대상이 없는 경우 */
+  @SuppressWarnings("unchecked")
+  private Map<String, Object> removeEmpty(Map<String, Object> map) {
+    boolean empty = true;
+
+    for (Map.Entry<String, Object> entry : map.entrySet()) {
+      if (entry.getValue() instanceof Map) {
+        entry.setValue(removeEmpty((Map<String, Object>) entry.getValue()));
+      }
+
+      empty &= entry.getValue() == null;
+    }
+
+    return empty ? null : map;
+  }
+
+  private <Q extends Query> Q bind(Q query, Map<String, ?> parameters) {
+    parameters.forEach(query::setParameter);
+    return query;
+  }
+
+  private String entityName(Class<?> domainType) {
+    return em.getMetamodel().entity(domainType).getName();
+  }
+}
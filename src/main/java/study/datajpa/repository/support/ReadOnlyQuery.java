@@ -0,0 +1,36 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * 조회 전용 Repository method
+ *
+ * <pre>
+ *     - @Transactional(readOnly = true) : 바깥 Transaction 이 없을 때 새로 시작하는 Transaction 이 읽기 전용
+ *        - Hibernate Session FlushMode.MANUAL - commit 할 때 flush(dirty checking) 하지 않는다.
+ *        - Session defaultReadOnly - 읽어온 entity 의 snapshot 을 만들지 않는다.
+ *        - JDBC Connection.setReadOnly(true) - DB / Driver 가 읽기 전용으로 최적화할 수 있다.
+ *     - org.hibernate.readOnly hint : 바깥 Transaction (읽기/쓰기) 에 참여해도 이 query 로 읽은 entity 는 읽기 전용
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 이 method 로 처음 읽은 entity 는 값을 바꿔도 update 되지 않는다. - 수정할 entity 는 findById 등으로 읽는다.
+ *     - 이미 Persistence Context 에 있는 entity 는 그대로 수정 가능하다.
+ * </pre>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+@Transactional(readOnly = true)
+@QueryHints(@QueryHint(name = org.hibernate.annotations.QueryHints.READ_ONLY, value = "true"))
+public @interface ReadOnlyQuery {}
@@ -0,0 +1,53 @@
+package study.datajpa.repository.support;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+@ConfigurationProperties(prefix = "app.retry")
+public class RetryProperties {
+
+  /** 최초 시도를 포함한 최대 시도 횟수 */
+  private int maxAttempts = 5;
+
+  /** 첫 번째 재시도 전 대기 시간 */
+  private Duration initialBackoff = Duration.ofMillis(5);
+
+  /** 재시도 할 때마다 대기 시간에 곱한다. */
+  private double multiplier = 2.0;
+
+  /** 최대 대기 시간 */
+  private Duration maxBackoff = Duration.ofMillis(200);
+
+  public int getMaxAttempts() {
+    return maxAttempts;
+  }
+
+  public void setMaxAttempts(int maxAttempts) {
+    this.maxAttempts = maxAttempts;
+  }
+
+  public Duration getInitialBackoff() {
+    return initialBackoff;
+  }
+
+  public void setInitialBackoff(Duration initialBackoff) {
+    this.initialBackoff = initialBackoff;
+  }
+
+  public double getMultiplier() {
+    return multiplier;
+  }
+
+  public void setMultiplier(double multiplier) {
+    this.multiplier = multiplier;
+  }
+
+  public Duration getMaxBackoff() {
+    return maxBackoff;
+  }
+
+  public void setMaxBackoff(Duration maxBackoff) {
+    this.maxBackoff = maxBackoff;
+  }
+}
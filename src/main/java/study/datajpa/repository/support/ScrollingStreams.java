@@ -0,0 +1,73 @@
+package study.datajpa.repository.support;
+
+import org.hibernate.ScrollMode;
+import org.hibernate.ScrollableResults;
+import org.hibernate.query.Query;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * 대량 조회용 Stream
+ *
+ * <pre>
+ *     - getResultList() 처럼 전체를 List 에 담지 않고, DB cursor 로 fetchSize 만큼씩 가져온다.
+ *     - fetchSize 만큼 읽을 때마다 Persistence Context 를 비워서, 읽은 entity 가 계속 쌓이지 않는다.
+ *     - read only 로 조회하므로 snapshot 을 만들지 않는다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - Transaction 안에서 사용해야 하고, 다 사용한 뒤 반드시 close() 해야한다. (try-with-resources)
+ *     - 이전에 읽은 entity 는 준영속 상태가 된다. - lazy loading 불가
+ *     - 같은 Persistence Context 를 사용하는 다른 entity 도 같이 비워진다.
+ * </pre>
+ */
+public final class ScrollingStreams {
+
+  private ScrollingStreams() {}
+
+  public static <T> Stream<T> stream(EntityManager em, TypedQuery<T> query, int fetchSize) {
+    if (fetchSize < 1) {
+      throw new IllegalArgumentException("fetch size must be greater than 0.");
+    }
+
+    @SuppressWarnings("unchecked")
+    Query<T> hibernateQuery = query.unwrap(Query.class);
+
+    ScrollableResults results =
+        hibernateQuery.setFetchSize(fetchSize).setReadOnly(true).scroll(ScrollMode.FORWARD_ONLY);
+
+    Spliterator<T> spliterator =
+        new Spliterators.AbstractSpliterator<T>(
+            Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL) {
+
+          private long count = 0;
+
+          @Override
+          @SuppressWarnings("unchecked")
+          public boolean tryAdvance(Consumer<? super T> action) {
+            if (count > 0 && count % fetchSize == 0) {
+              em.clear();
+            }
+
+            if (!results.next()) {
+              return false;
+            }
+
+            count++;
+            action.accept((T) results.get(0));
+
+            return true;
+          }
+        };
+
+    return StreamSupport.stream(spliterator, false).onClose(results::close);
+  }
+}
@@ -0,0 +1,88 @@
+package study.datajpa.repository.support;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 같은 key 의 동시 조회를 하나로 합친다. (single flight, request coalescing)
+ *
+ * <pre>
+ *     - 처음 들어온 thread 만 loader 를 실행하고, 실행 중에 들어온 thread 는 그 결과를 기다려서 같이 사용한다.
+ *     - 인기 있는 member 에 요청이 몰려도 DB query 는 한 번만 실행된다.
+ *     - 결과는 cache 하지 않는다. - 실행이 끝나면 다음 요청은 다시 loader 를 실행한다.
+ *     - loader 가 실패하면 기다리던 thread 도 같은 예외로 실패한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 결과를 여러 thread 가 같이 사용하므로, 변경할 수 없는 값 (DTO, 불변 List) 이어야 한다.
+ *     - loader 안에서 같은 key 로 다시 호출하면 안된다. - 자기 자신을 기다리게 된다.
+ * </pre>
+ */
+public class SingleFlight<K, V> {
+
+  private final ConcurrentMap<K, CompletableFuture<V>> calls = new ConcurrentHashMap<>();
+
+  private final LongAdder executed = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+
+  public V execute(K key, Supplier<V> loader) {
+    CompletableFuture<V> call = new CompletableFuture<>();
+    CompletableFuture<V> inFlight = calls.putIfAbsent(key, call);
+
+    if (inFlight != null) {
+      coalesced.increment();
+      return join(inFlight);
+    }
+
+    executed.increment();
+
+    try {
+      V value = loader.get();
+      call.complete(value);
+
+      return value;
+    } catch (RuntimeException | Error e) {
+      call.completeExceptionally(e);
+      throw e;
+    } finally {
+      calls.remove(key, call);
+    }
+  }
+
+  /** loader 를 실행한 횟수 */
+  public long getExecuted() {
+    return executed.sum();
+  }
+
+  /** 실행 중인 결과를 같이 사용한 횟수 */
+  public long getCoalesced() {
+    return coalesced.sum();
+  }
+
+  /** 실행 중인 key 수 */
+  public int getInFlight() {
+    return calls.size();
+  }
+
+  private static <V> V join(CompletableFuture<V> call) {
+    try {
+      return call.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+
+      if (e.getCause() instanceof Error) {
+        throw (Error) e.getCause();
+      }
+
+      throw e;
+    }
+  }
+}
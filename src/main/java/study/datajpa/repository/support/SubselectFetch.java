@@ -0,0 +1,39 @@
+package study.datajpa.repository.support;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Repository method 결과의 lazy collection 을 query 1번으로 같이 초기화
+ *
+ * <pre>
+ *     - 결과 entity 들의 id 로 "where e in (...)" fetch join 을 1번 더 실행한다.
+ *        - 원래 query 는 fetch join 이 없으므로 paging 이 DB 에서 그대로 된다.
+ *        - Team 1,000 개 + members : query 2번 (count 제외)
+ *     - batchSize 로 method 마다 fetch join 한 번에 넣을 entity 수를 정한다. - 기본값 IN_LIMIT
+ *        - IN 절 제한을 넘지 않도록 최대 SubselectFetchAspect.maxInSize 개 (padding 을 켜면 512)
+ *        - 전역 설정 (hibernate.default_batch_fetch_size) 은 이 annotation 이 없는 lazy 로딩에 적용된다.
+ *     - 결과 type : entity, Optional, Iterable (List, Page, Slice ...)
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - 결과 entity 가 영속 상태여야 한다. - 바깥 Transaction 이나 OSIV 가 없으면 아무것도 하지 않는다.
+ *     - 이미 초기화된 collection 은 다시 읽지 않는다.
+ * </pre>
+ */
+@Documented
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SubselectFetch {
+
+  /** 같이 초기화할 collection 속성 이름 */
+  String[] value();
+
+  /** fetch join 한 번에 초기화할 entity 수 - maxInSize 보다 크면 maxInSize */
+  int batchSize() default SubselectFetchAspect.IN_LIMIT;
+}
@@ -0,0 +1,154 @@
+package study.datajpa.repository.support;
+
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Aspect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.proxy.HibernateProxyHelper;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * {@link SubselectFetch} 가 붙은 Repository method 의 결과 collection 초기화
+ *
+ * <pre>
+ *     - entity type 별로 모아서, 아직 초기화되지 않은 entity 만 batchSize (최대 maxInSize) 개씩 나눠 fetch join 한다.
+ *     - 같은 Persistence Context 이므로 이미 영속 상태인 entity 에 collection 이 채워진다.
+ *     - entity 가 아닌 값 (DTO, projection) 은 건너뛴다. - proxy 는 초기화하지 않고 entity type 을 찾는다.
+ * </pre>
+ */
+@Aspect
+public class SubselectFetchAspect {
+
+  /** IN 절 하나에 넣을 수 있는 최대 parameter 수 (Oracle 등 DB 제한) */
+  static final int IN_LIMIT = 1000;
+
+  private final EntityManager em;
+
+  public SubselectFetchAspect(EntityManager em) {
+    this.em = em;
+  }
+
+  @AfterReturning(pointcut = "@annotation(subselectFetch)", returning = "result")
+  public void fetch(SubselectFetch subselectFetch, Object result) {
+    Map<Class<?>, List<Object>> entities = collect(result);
+
+    if (entities.isEmpty()) {
+      return;
+    }
+
+    if (subselectFetch.batchSize() < 1) {
+      throw new IllegalArgumentException("batch size must be greater than 0.");
+    }
+
+    int batchSize = Math.min(subselectFetch.batchSize(), maxInSize(em));
+
+    entities.forEach(
+        (type, values) -> {
+          for (String attribute : subselectFetch.value()) {
+            initialize(type, values, attribute, batchSize);
+          }
+        });
+  }
+
+  /**
+   * IN 절 하나에 넣을 최대 값 수
+   *
+   * <pre>
+   *     - hibernate.query.in_clause_parameter_padding 을 켜면 parameter 수를 2 의 거듭제곱으로 늘린다.
+   *        - 1000 개 -> 1024 개 parameter 가 되어 IN_LIMIT 을 넘으므로, IN_LIMIT 이하의 2 의 거듭제곱 (512) 로 줄인다.
+   * </pre>
+   */
+  static int maxInSize(EntityManager em) {
+    boolean padding =
+        em.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getSessionFactoryOptions()
+            .inClauseParameterPaddingEnabled();
+
+    return padding ? Integer.highestOneBit(IN_LIMIT) : IN_LIMIT;
+  }
+
+  private Map<Class<?>, List<Object>> collect(Object result) {
+    Map<Class<?>, List<Object>> entities = new LinkedHashMap<>();
+
+    if (result instanceof Optional) {
+      result = ((Optional<?>) result).orElse(null);
+    }
+
+    if (result instanceof Iterable) {
+      for (Object value : (Iterable<?>) result) {
+        add(entities, value);
+      }
+    } else {
+      add(entities, result);
+    }
+
+    return entities;
+  }
+
+  private void add(Map<Class<?>, List<Object>> entities, Object value) {
+    if (value == null) {
+      return;
+    }
+
+    // ! em.contains() 는 entity 가 아니면 IllegalArgumentException - metamodel 을 먼저 확인한다.
+    Class<?> type = HibernateProxyHelper.getClassWithoutInitializingProxy(value);
+
+    if (!isEntity(type) || !em.contains(value)) {
+      return;
+    }
+
+    entities.computeIfAbsent(type, key -> new ArrayList<>()).add(value);
+  }
+
+  private boolean isEntity(Class<?> type) {
+    for (EntityType<?> entityType : em.getMetamodel().getEntities()) {
+      if (entityType.getJavaType() == type) {
+        return true;
+      }
+    }
+
+    return false;
+  }
+
+  private void initialize(Class<?> type, List<Object> values, String attribute, int batchSize) {
+    EntityType<?> entityType = em.getMetamodel().entity(type);
+    Attribute<?, ?> metaAttribute = entityType.getAttribute(attribute);
+
+    if (!metaAttribute.isCollection()) {
+      throw new IllegalArgumentException(
+          entityType.getName() + "." + attribute + " is not a collection");
+    }
+
+    PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+
+    List<Object> pending = new ArrayList<>();
+
+    for (Object value : values) {
+      if (!util.isLoaded(value, attribute)) {
+        pending.add(value);
+      }
+    }
+
+    String jpql =
+        "select distinct e from "
+            + entityType.getName()
+            + " e left join fetch e."
+            + attribute
+            + " where e in :entities";
+
+    for (int from = 0; from < pending.size(); from += batchSize) {
+      List<Object> chunk = pending.subList(from, Math.min(from + batchSize, pending.size()));
+
+      em.createQuery(jpql, type).setParameter("entities", chunk).getResultList();
+    }
+  }
+}
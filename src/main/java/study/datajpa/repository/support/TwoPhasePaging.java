@@ -0,0 +1,84 @@
+package study.datajpa.repository.support;
+
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Collection fetch join + paging
+ *
+ * <pre>
+ *     - collection fetch join 에 setFirstResult / setMaxResults 를 주면
+ *       Hibernate 는 전체를 읽은 후 memory 에서 paging 한다. (HHH000104)
+ *     - 1. root entity 의 id 만 DB 에서 paging (LIMIT)
+ *     - 2. 그 id 들만 fetch join 으로 읽고, 1번 순서대로 다시 정렬
+ *     - 한 page 를 query 2번 (+ count) 으로, page 크기 만큼만 memory 에 올린다.
+ * </pre>
+ */
+public final class TwoPhasePaging {
+
+  private TwoPhasePaging() {}
+
+  /**
+   * 1단계 - id paging
+   *
+   * @param idJpql "select t.id from Team t ..." - order by 는 붙이지 않는다.
+   * @param alias root entity alias
+   * @return 정렬 조건에 id 가 없으면 마지막에 id 를 붙여서, 같은 값이 있어도 page 사이 순서가 바뀌지 않게 한다.
+   */
+  public static <ID> List<ID> pageIds(
+      EntityManager em, String idJpql, String alias, Class<ID> idType, Pageable pageable) {
+    Sort sort = pageable.getSort();
+
+    if (sort.getOrderFor("id") == null) {
+      sort = sort.and(Sort.by("id"));
+    }
+
+    TypedQuery<ID> query = em.createQuery(QueryUtils.applySorting(idJpql, sort, alias), idType);
+
+    if (pageable.isPaged()) {
+      query.setFirstResult((int) pageable.getOffset()).setMaxResults(pageable.getPageSize());
+    }
+
+    return query.getResultList();
+  }
+
+  /**
+   * 2단계 - fetch join 후 id 순서대로 정렬
+   *
+   * @param fetcher ids 로 fetch join 하는 query - 순서는 상관없다.
+   */
+  public static <T, ID> List<T> fetchInOrder(
+      List<ID> ids, Function<List<ID>, List<T>> fetcher, Function<T, ID> idOf) {
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+
+    Map<ID, T> byId = new HashMap<>();
+
+    for (T entity : fetcher.apply(ids)) {
+      byId.put(idOf.apply(entity), entity);
+    }
+
+    List<T> ordered = new ArrayList<>(ids.size());
+
+    for (ID id : ids) {
+      T entity = byId.get(id);
+
+      if (entity != null) { // 1단계 이후 삭제된 경우
+        ordered.add(entity);
+      }
+    }
+
+    return ordered;
+  }
+}
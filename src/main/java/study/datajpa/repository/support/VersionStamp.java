@@ -0,0 +1,91 @@
+package study.datajpa.repository.support;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.StringJoiner;
+
+/**
+ * 조건부 GET (If-None-Match, If-Modified-Since) 용 자원의 버전
+ *
+ * <pre>
+ *     - entity 전체가 아닌 version, 수정 시간 같은 값만 조회해서 만든다.
+ *     - 같은 값이면 응답도 같으므로, WebRequest.checkNotModified(etag, lastModified) 로 304 를 응답한다.
+ * </pre>
+ *
+ * ! 주의할 점
+ *
+ * <pre>
+ *     - Last-Modified 는 초 단위이므로, 1초 안에 여러 번 바뀌면 구분하지 못한다. - ETag 가 있으면 ETag 를 우선 비교한다.
+ *     - 응답을 조회하기 전에 만들어야 한다. - 응답보다 오래된 ETag 는 다음 요청에서 200 이 될 뿐이지만, 반대는 오래된 응답을 계속 사용하게 된다.
+ * </pre>
+ */
+public final class VersionStamp {
+
+  private final String etag;
+  private final long lastModified;
+
+  private VersionStamp(String etag, long lastModified) {
+    this.etag = etag;
+    this.lastModified = lastModified;
+  }
+
+  /**
+   * @param lastModified 마지막 수정 시간 - 없으면 null
+   * @param parts ETag 를 만들 값 - 하나라도 바뀌면 ETag 가 바뀐다. (null 은 0, LocalDateTime 은 epoch millis)
+   */
+  public static VersionStamp of(LocalDateTime lastModified, Object... parts) {
+    StringJoiner etag = new StringJoiner("-", "\"", "\"");
+
+    for (Object part : parts) {
+      etag.add(format(part));
+    }
+
+    return new VersionStamp(
+        etag.toString(), lastModified == null ? -1 : toEpochMilli(lastModified));
+  }
+
+  /** 가장 최근 시간 - 모두 null 이면 null */
+  public static LocalDateTime latest(LocalDateTime... dateTimes) {
+    LocalDateTime latest = null;
+
+    for (LocalDateTime dateTime : dateTimes) {
+      if (dateTime != null && (latest == null || dateTime.isAfter(latest))) {
+        latest = dateTime;
+      }
+    }
+
+    return latest;
+  }
+
+  /** strong ETag - 따옴표 포함 */
+  public String getETag() {
+    return etag;
+  }
+
+  /** epoch millis - 없으면 -1 (Last-Modified 를 사용하지 않음) */
+  public long getLastModified() {
+    return lastModified;
+  }
+
+  private static String format(Object part) {
+    if (part == null) {
+      return "0";
+    }
+
+    if (part instanceof LocalDateTime) {
+      return Long.toString(toEpochMilli((LocalDateTime) part));
+    }
+
+    return part.toString();
+  }
+
+  /** LocalDateTime 은 JVM 기본 time zone 으로 저장된다. */
+  private static long toEpochMilli(LocalDateTime dateTime) {
+    return dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+  }
+
+  @Override
+  public String toString() {
+    return etag;
+  }
+}
@@ -0,0 +1,103 @@
+package study.datajpa.auditing;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.AuditorAware;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Rollback
+class AuditingTest {
+
+  @Autowired private EntityManager em;
+  @Autowired private AuditorAware<String> auditorAware;
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private TeamRepository teamRepository;
+
+  @Test
+  void trustedImport() throws Exception {
+    // given
+    LocalDateTime importedAt = LocalDateTime.of(2021, 9, 1, 0, 0);
+    Team team = new Team("importTeam");
+    List<Member> members =
+        Arrays.asList(new Member("import1", 10, team), new Member("import2", 20, team));
+
+    // when
+    AuditStamp.trusted(
+        "import-job",
+        importedAt,
+        () -> {
+          teamRepository.save(team);
+          return memberRepository.saveAllBatched(members, 100);
+        });
+
+    // then - Spring Data Auditing (Member), JPA callback (Team) 모두 고정된 값
+    Member member = memberRepository.findByUsername("import1").get(0);
+
+    assertThat(member.getCreatedBy()).isEqualTo("import-job");
+    assertThat(member.getLastModifiedBy()).isEqualTo("import-job");
+    assertThat(member.getCreateAt()).isEqualTo(importedAt);
+    assertThat(member.getTeam().getCreatedDate()).isEqualTo(importedAt);
+
+    assertThat(AuditStamp.current()).isNull();
+  }
+
+  @Test
+  void auditorCachedPerRequest() throws Exception {
+    // given - 요청 밖에서는 매번 조회 (SpringBootTest 는 test 마다 mock request 를 연결하므로 먼저 해제)
+    RequestContextHolder.resetRequestAttributes();
+
+    assertThat(auditorAware.getCurrentAuditor()).isNotEqualTo(auditorAware.getCurrentAuditor());
+
+    RequestContextHolder.setRequestAttributes(
+        new ServletRequestAttributes(new MockHttpServletRequest()));
+
+    try {
+      // when
+      String first = auditorAware.getCurrentAuditor().get();
+      String second = auditorAware.getCurrentAuditor().get();
+
+      // then
+      assertThat(second).isEqualTo(first);
+    } finally {
+      RequestContextHolder.resetRequestAttributes();
+    }
+  }
+
+  @Test
+  void coarseClock() throws Exception {
+    // given
+    CoarseClock clock = new CoarseClock(Duration.ofMillis(50));
+
+    // when
+    LocalDateTime first = clock.get();
+    LocalDateTime cached = clock.get();
+
+    Thread.sleep(60);
+
+    LocalDateTime next = clock.get();
+
+    // then
+    assertThat(cached).isSameAs(first);
+    assertThat(next).isAfter(first);
+  }
+}
@@ -0,0 +1,160 @@
+package study.datajpa.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/** primary, replica 를 서로 다른 H2 memory DB 로 대신한다. */
+class ReplicationRoutingDataSourceTest {
+
+  private static final String PRIMARY = "jdbc:h2:mem:routing_primary;DB_CLOSE_DELAY=-1";
+  private static final String REPLICA = "jdbc:h2:mem:routing_replica;DB_CLOSE_DELAY=-1";
+
+  private DataSource replica;
+  private ReplicationRoutingDataSource routingDataSource;
+  private DataSource dataSource;
+
+  private TransactionTemplate transaction;
+  private TransactionTemplate readOnlyTransaction;
+
+  @BeforeEach
+  void setUp() {
+    replica = new DriverManagerDataSource(REPLICA, "sa", "");
+
+    routingDataSource =
+        new ReplicationRoutingDataSource(new DriverManagerDataSource(PRIMARY, "sa", ""), replica);
+    routingDataSource.afterPropertiesSet();
+
+    dataSource = new LazyConnectionDataSourceProxy(routingDataSource);
+
+    DataSourceTransactionManager transactionManager = new DataSourceTransactionManager(dataSource);
+
+    transaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction = new TransactionTemplate(transactionManager);
+    readOnlyTransaction.setReadOnly(true);
+  }
+
+  @Test
+  void route() throws Exception {
+    // given
+    // when
+    String write = transaction.execute(status -> url());
+    String read = readOnlyTransaction.execute(status -> url());
+
+    // then
+    assertThat(write).startsWith("jdbc:h2:mem:routing_primary");
+    assertThat(read).startsWith("jdbc:h2:mem:routing_replica");
+    assertThat(routingDataSource.getRouted(DataSourceType.REPLICA)).isEqualTo(1);
+  }
+
+  @Test
+  void fallbackToPrimary() throws Exception {
+    // given
+    routingDataSource.setReplicaAvailable(false);
+
+    // when
+    String read = readOnlyTransaction.execute(status -> url());
+
+    // then
+    assertThat(read).startsWith("jdbc:h2:mem:routing_primary");
+    assertThat(routingDataSource.getFallbacks()).isEqualTo(1);
+  }
+
+  @Test
+  void lagMonitor() throws Exception {
+    // given
+    Duration maxLag = Duration.ofSeconds(5);
+
+    // when
+    // then
+    new ReplicaLagMonitor(replica, routingDataSource, "select 10", maxLag).run();
+    assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+
+    ReplicaLagMonitor monitor = new ReplicaLagMonitor(replica, routingDataSource, "select 1", maxLag);
+    monitor.run();
+    assertThat(routingDataSource.isReplicaAvailable()).isTrue();
+    assertThat(monitor.getLastLag()).isEqualTo(Duration.ofSeconds(1));
+
+    new ReplicaLagMonitor(replica, routingDataSource, "select null", maxLag).run();
+    assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+
+    new ReplicaLagMonitor(replica, routingDataSource, null, maxLag).run();
+    assertThat(routingDataSource.isReplicaAvailable()).isTrue();
+
+    new ReplicaLagMonitor(replica, routingDataSource, "select * from no_table", maxLag).run();
+    assertThat(routingDataSource.isReplicaAvailable()).isFalse();
+  }
+
+  @Test
+  void bindMetrics() throws Exception {
+    // given
+    MeterRegistry registry = new SimpleMeterRegistry();
+
+    try (ReplicationDataSource replicationDataSource =
+        new ReplicationDataSource(
+            pool("primary", PRIMARY),
+            pool("replica", REPLICA),
+            (name, pool) -> pool,
+            "select 2",
+            Duration.ofSeconds(1),
+            Duration.ofMinutes(1))) {
+
+      replicationDataSource.bindTo(registry);
+
+      // when
+      try (Connection connection = replicationDataSource.getConnection()) {
+        connection.createStatement().close();
+      }
+
+      // then
+      assertThat(
+              registry
+                  .get("datasource.routing.connections")
+                  .tag("type", "primary")
+                  .functionCounter()
+                  .count())
+          .isPositive()
+          .isEqualTo(
+              replicationDataSource.getRoutingDataSource().getRouted(DataSourceType.PRIMARY));
+      assertThat(registry.get("datasource.routing.fallbacks").functionCounter().count())
+          .isZero();
+      assertThat(registry.get("datasource.replica.lag").timeGauge().value(TimeUnit.SECONDS))
+          .isEqualTo(2);
+      assertThat(registry.find("hikaricp.connections").tag("pool", "primary").gauge()).isNotNull();
+      assertThat(registry.find("hikaricp.connections").tag("pool", "replica").gauge()).isNotNull();
+    }
+  }
+
+  private static HikariDataSource pool(String name, String url) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setPoolName(name);
+    pool.setJdbcUrl(url);
+    pool.setUsername("sa");
+    return pool;
+  }
+
+  private String url() {
+    Connection connection = DataSourceUtils.getConnection(dataSource);
+
+    try {
+      return connection.getMetaData().getURL();
+    } catch (SQLException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
@@ -2,7 +2,12 @@ package study.datajpa.entity;
 
 import org.junit.jupiter.api.Test;
 
-import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.*;
 
 class CustomIdTest {
 
@@ -17,4 +22,78 @@ class CustomIdTest {
 
     System.out.println("id = " + id);
   }
+
+  @Test
+  void generateSortedIds() throws Exception {
+    // given
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+    // when
+    List<String> ids = new ArrayList<>();
+
+    for (int i = 0; i < 10_000; i++) {
+      ids.add(generator.generate());
+    }
+
+    // then
+    assertThat(ids).isSorted().doesNotHaveDuplicates();
+  }
+
+  @Test
+  void generateUniqueIdsConcurrently() throws Exception {
+    // given
+    SnowflakeIdGenerator generator = new SnowflakeIdGenerator(1);
+
+    int threads = 8;
+    int count = 50_000;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+    Set<Long> ids = ConcurrentHashMap.newKeySet();
+
+    // when
+    List<Future<?>> futures = new ArrayList<>();
+
+    for (int t = 0; t < threads; t++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                for (int i = 0; i < count; i++) {
+                  ids.add(generator.nextId());
+                }
+              }));
+    }
+
+    for (Future<?> future : futures) {
+      future.get();
+    }
+
+    executor.shutdown();
+
+    // then
+    assertThat(ids).hasSize(threads * count);
+  }
+
+  @Test
+  void differentNodesDoNotCollide() throws Exception {
+    // given
+    SnowflakeIdGenerator node1 = new SnowflakeIdGenerator(1);
+    SnowflakeIdGenerator node2 = new SnowflakeIdGenerator(2);
+
+    // when
+    Set<String> ids = ConcurrentHashMap.newKeySet();
+
+    for (int i = 0; i < 10_000; i++) {
+      ids.add(node1.generate());
+      ids.add(node2.generate());
+    }
+
+    // then
+    assertThat(ids).hasSize(20_000);
+  }
+
+  @Test
+  void invalidNodeId() throws Exception {
+    assertThatThrownBy(() -> new SnowflakeIdGenerator(SnowflakeIdGenerator.MAX_NODE_ID + 1))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
 }
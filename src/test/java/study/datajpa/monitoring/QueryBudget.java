@@ -0,0 +1,25 @@
+package study.datajpa.monitoring;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * test method 안에서 실행할 수 있는 SQL budget - QueryBudgetExtension 과 같이 사용
+ *
+ * <pre>
+ *     - class 에 붙이면 모든 test method 에 적용, method 에 붙인 값이 우선한다.
+ *     - test method 본문만 집계한다. - @Transactional test 의 commit 시점 flush 는 포함되지 않음
+ * </pre>
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+public @interface QueryBudget {
+
+  /** 허용하는 최대 SQL 수 - 0 이하이면 검사하지 않는다. */
+  int max() default 0;
+
+  /** 같은 select 가 이 횟수 이상 반복되면 실패 - 1 이하이면 검사하지 않는다. */
+  int repeatThreshold() default 3;
+}
@@ -0,0 +1,64 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.extension.AfterTestExecutionCallback;
+import org.junit.jupiter.api.extension.BeforeTestExecutionCallback;
+import org.junit.jupiter.api.extension.ExtensionContext;
+import org.junit.platform.commons.support.AnnotationSupport;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * QueryBudget 을 넘은 test 를 실패 처리
+ *
+ * <pre>
+ *     - @ExtendWith(QueryBudgetExtension.class) 로 등록한다.
+ *     - @QueryBudget 이 없는 test 는 집계하지 않는다.
+ * </pre>
+ */
+public class QueryBudgetExtension implements BeforeTestExecutionCallback, AfterTestExecutionCallback {
+
+  private static final ExtensionContext.Namespace NAMESPACE =
+      ExtensionContext.Namespace.create(QueryBudgetExtension.class);
+
+  @Override
+  public void beforeTestExecution(ExtensionContext context) {
+    findBudget(context)
+        .ifPresent(
+            budget ->
+                context
+                    .getStore(NAMESPACE)
+                    .put(QueryScope.class, QueryCounter.open(context.getDisplayName())));
+  }
+
+  @Override
+  public void afterTestExecution(ExtensionContext context) {
+    QueryScope scope = context.getStore(NAMESPACE).remove(QueryScope.class, QueryScope.class);
+
+    if (scope == null) {
+      return;
+    }
+
+    scope.close();
+
+    QueryBudget budget = findBudget(context).orElseThrow(IllegalStateException::new);
+    List<String> violations = scope.violations(budget.max(), budget.repeatThreshold());
+
+    if (!violations.isEmpty()) {
+      fail("query budget exceeded\n  " + String.join("\n  ", violations));
+    }
+  }
+
+  private Optional<QueryBudget> findBudget(ExtensionContext context) {
+    Optional<QueryBudget> budget =
+        AnnotationSupport.findAnnotation(context.getTestMethod(), QueryBudget.class);
+
+    if (budget.isPresent()) {
+      return budget;
+    }
+
+    return AnnotationSupport.findAnnotation(context.getTestClass(), QueryBudget.class);
+  }
+}
@@ -0,0 +1,71 @@
+package study.datajpa.monitoring;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryScopeTest {
+
+  private static final String SELECT_TEAM = "select * from team where team_id=?";
+
+  @Test
+  void countWithinScope() throws Exception {
+    // given
+    QueryCounter.record("select 1"); // scope 밖 - 무시
+
+    // when
+    try (QueryScope scope = QueryCounter.open("outer")) {
+      QueryCounter.record("select 1");
+
+      try (QueryScope inner = QueryCounter.open("inner")) {
+        QueryCounter.record("select 2");
+
+        assertThat(QueryCounter.current()).isSameAs(inner);
+        assertThat(inner.getCount()).isEqualTo(1);
+      }
+
+      // then
+      assertThat(QueryCounter.current()).isSameAs(scope);
+      assertThat(scope.getCount()).isEqualTo(2);
+      assertThat(scope.getStatements()).containsKeys("select 1", "select 2");
+    }
+
+    assertThat(QueryCounter.current()).isNull();
+  }
+
+  @Test
+  void closeOuterFirst() throws Exception {
+    // given
+    QueryScope outer = QueryCounter.open("outer");
+    QueryCounter.open("inner");
+
+    // when
+    outer.close();
+
+    // then
+    assertThat(QueryCounter.current()).isNull();
+  }
+
+  @Test
+  void violations() throws Exception {
+    // given
+    QueryScope scope = QueryCounter.open("test");
+
+    QueryCounter.record("select * from member");
+    for (int i = 0; i < 3; i++) {
+      QueryCounter.record(SELECT_TEAM);
+      QueryCounter.record("call next value for member_seq");
+    }
+
+    scope.close();
+
+    // when
+    // then
+    assertThat(scope.getCount()).isEqualTo(7);
+    assertThat(scope.getRepeatedSelects(3)).containsOnlyKeys(SELECT_TEAM);
+    assertThat(scope.getRepeatedSelects(4)).isEmpty();
+    assertThat(scope.violations(10, 3)).hasSize(1);
+    assertThat(scope.violations(5, 3)).hasSize(2);
+    assertThat(scope.violations(0, 0)).isEmpty();
+  }
+}
@@ -0,0 +1,139 @@
+package study.datajpa.monitoring;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Rollback
+class RepositoryMetricsAspectTest {
+
+  @Autowired private EntityManager em;
+  @Autowired private MeterRegistry registry;
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private TeamRepository teamRepository;
+
+  @Test
+  void testRepositoryMetrics() throws Exception {
+    // given
+    Team team = teamRepository.save(new Team("metricsTeam"));
+
+    memberRepository.save(new Member("metrics1", 10, team));
+    memberRepository.save(new Member("metrics2", 10, team));
+
+    em.flush();
+    em.clear();
+
+    memberRepository.findMemberFetchJoin(); // meter 등록
+    em.clear();
+
+    long invocations = timer("findMemberFetchJoin").count();
+    double returned = summary("repository.rows.returned", "findMemberFetchJoin").totalAmount();
+    double hydrated = summary("repository.rows.hydrated", "findMemberFetchJoin").totalAmount();
+
+    // when - member 와 team 을 같이 hydrate 한다.
+    int rows = memberRepository.findMemberFetchJoin().size();
+
+    // then
+    assertThat(timer("findMemberFetchJoin").count()).isEqualTo(invocations + 1);
+    assertThat(summary("repository.rows.returned", "findMemberFetchJoin").totalAmount())
+        .isEqualTo(returned + rows);
+    assertThat(summary("repository.rows.hydrated", "findMemberFetchJoin").totalAmount())
+        .isGreaterThan(hydrated + rows);
+    assertThat(summary("repository.persistence.context", "findMemberFetchJoin").max())
+        .isGreaterThanOrEqualTo(rows);
+
+    assertThat(
+            registry
+                .get("repository.invocations")
+                .tag("repository", "MemberRepository")
+                .tag("method", "findMemberFetchJoin")
+                .tag("query", "jpql")
+                .timer())
+        .isNotNull();
+  }
+
+  @Test
+  void testSharedMethodIsTaggedPerRepository() throws Exception {
+    // when - findById 는 CrudRepository 의 같은 Method
+    memberRepository.findById(-1L);
+    teamRepository.findById(-1L);
+
+    // then
+    assertThat(
+            registry
+                .get("repository.invocations")
+                .tag("repository", "TeamRepository")
+                .tag("method", "findById")
+                .tag("query", "crud")
+                .timer()
+                .count())
+        .isPositive();
+    assertThat(
+            registry
+                .get("repository.invocations")
+                .tag("repository", "MemberRepository")
+                .tag("method", "findById")
+                .timer()
+                .count())
+        .isPositive();
+  }
+
+  @Test
+  void testHibernateStatisticsMetrics() throws Exception {
+    // given
+    memberRepository.save(new Member("metrics1", 10));
+
+    em.flush();
+    em.clear();
+
+    // when
+    memberRepository.findByUsername("metrics1");
+
+    // then
+    assertThat(registry.find("hibernate.cache.query.plan").tag("result", "hit").functionCounter())
+        .isNotNull();
+    assertThat(
+            registry
+                .find("hibernate.second.level.cache.requests")
+                .tag("region", "member")
+                .meters())
+        .isNotEmpty();
+    assertThat(registry.find("hibernate.flushes").functionCounter()).isNotNull();
+
+    // JPQL 문자열 별 지표는 등록하지 않는다. - @Query 별 실행 시간은 repository.invocations
+    assertThat(registry.find("hibernate.query.execution.total").meters()).isEmpty();
+  }
+
+  private Timer timer(String method) {
+    return registry
+        .get("repository.invocations")
+        .tag("repository", "MemberRepository")
+        .tag("method", method)
+        .tag("exception", "none")
+        .timer();
+  }
+
+  private DistributionSummary summary(String name, String method) {
+    return registry
+        .get(name)
+        .tag("repository", "MemberRepository")
+        .tag("method", method)
+        .summary();
+  }
+}
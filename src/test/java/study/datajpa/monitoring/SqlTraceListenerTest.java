@@ -0,0 +1,94 @@
+package study.datajpa.monitoring;
+
+import com.p6spy.engine.common.ConnectionInformation;
+import com.p6spy.engine.common.PreparedStatementInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.fail;
+import static org.assertj.core.api.Assertions.tuple;
+
+class SqlTraceListenerTest {
+
+  private static final long FAST = TimeUnit.MILLISECONDS.toNanos(1);
+  private static final long SLOW = TimeUnit.MILLISECONDS.toNanos(500);
+
+  private SqlTraceListener listener;
+
+  @AfterEach
+  void tearDown() {
+    listener.close();
+  }
+
+  @Test
+  void recordSlowAndFailedOnly() throws Exception {
+    // given
+    listener = listener(0.0, 2);
+
+    // when
+    listener.trace(() -> fail("기록하지 않는 SQL 은 만들지 않는다."), FAST, null);
+    listener.trace(() -> "select slow", SLOW, null);
+    listener.trace(() -> "select error", FAST, new SQLException("boom"));
+
+    // then - 최신 순서
+    assertThat(listener.getBuffer().snapshot())
+        .extracting(SqlTrace::getReason, SqlTrace::getSql, SqlTrace::getError)
+        .containsExactly(
+            tuple(SqlTrace.Reason.ERROR, "select error", "boom"),
+            tuple(SqlTrace.Reason.SLOW, "select slow", null));
+  }
+
+  @Test
+  void sampleAndOverwriteOldest() throws Exception {
+    // given
+    listener = listener(1.0, 2);
+
+    // when
+    listener.trace(() -> "select 1", FAST, null);
+    listener.trace(() -> "select 2", FAST, null);
+    listener.trace(() -> "select 3", FAST, null);
+
+    // then
+    assertThat(listener.getBuffer().getCount()).isEqualTo(3);
+    assertThat(listener.getBuffer().snapshot())
+        .extracting(SqlTrace::getSql)
+        .containsExactly("select 3", "select 2");
+    assertThat(listener.getBuffer().snapshot())
+        .extracting(SqlTrace::getReason)
+        .containsOnly(SqlTrace.Reason.SAMPLED);
+  }
+
+  @Test
+  void maskBindValuesByDefault() throws Exception {
+    // given
+    listener = listener(0.0, 2);
+
+    PreparedStatementInformation statement =
+        new PreparedStatementInformation(
+            ConnectionInformation.fromTestConnection(null),
+            "select * from member where username = ?");
+    statement.setParameterValue(1, "secret");
+
+    // when
+    listener.onAfterAnyExecute(statement, SLOW, null);
+
+    // then
+    assertThat(listener.getBuffer().snapshot())
+        .extracting(SqlTrace::getSql)
+        .containsExactly("select * from member where username = ?");
+  }
+
+  private SqlTraceListener listener(double sampleRate, int bufferSize) {
+    SqlTraceProperties properties = new SqlTraceProperties();
+    properties.setSampleRate(sampleRate);
+    properties.setSlowThreshold(Duration.ofMillis(200));
+    properties.setBufferSize(bufferSize);
+
+    return new SqlTraceListener(properties);
+  }
+}
@@ -1,29 +1,56 @@
 package study.datajpa.repository;
 
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.*;
 import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import study.datajpa.dto.MemberDto;
 import study.datajpa.dto.UsernameOnlyDto;
 import study.datajpa.entity.Member;
 import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryBudget;
+import study.datajpa.monitoring.QueryBudgetExtension;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.monitoring.QueryScope;
+import study.datajpa.repository.count.CountStrategy;
+import study.datajpa.repository.keyset.KeysetWindow;
+import study.datajpa.repository.keyset.MemberKeyset;
+import study.datajpa.repository.support.DtoMapper;
+import study.datajpa.repository.support.MultiGet;
+import study.datajpa.repository.support.MultiGetResult;
+import study.datajpa.repository.support.VersionStamp;
 
 import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.tuple;
 
 @SpringBootTest
 @Transactional
 @Rollback(false)
+@ExtendWith(QueryBudgetExtension.class)
 class MemberRepositoryTest {
 
   @Autowired private EntityManager em;
+  @Autowired private EntityManagerFactory emf;
+  @Autowired private PlatformTransactionManager transactionManager;
 
   @Autowired private MemberRepository memberRepository;
   @Autowired private TeamRepository teamRepository;
@@ -145,7 +172,8 @@ class MemberRepositoryTest {
     List<String> result = memberRepository.findUsernameList();
 
     // then
-    assertThat(result.get(0)).isEqualTo("user1");
+    // ! order by 가 없으므로 순서를 보장하지 않는다. - username index 를 타면 정렬된 순서로 나옴
+    assertThat(result).contains("user1", "user2");
   }
 
   @Test
@@ -278,6 +306,286 @@ class MemberRepositoryTest {
     assertThat(nextResult.hasNext()).isFalse();
   }
 
+  @Test
+  @Rollback
+  void testKeysetPagination() throws Exception {
+    // given
+    int age = 1000;
+
+    memberRepository.save(new Member("keyset3", age));
+    memberRepository.save(new Member("keyset1", age));
+    memberRepository.save(new Member("keyset2", age));
+    memberRepository.save(new Member("keyset2", age));
+    memberRepository.save(new Member("keyset4", age));
+
+    // when
+    KeysetWindow<Member> first = memberRepository.findKeysetByAge(age, null, 3);
+
+    KeysetWindow<Member> second =
+        memberRepository.findKeysetByAge(age, MemberKeyset.decode(first.getNextCursor()), 3);
+
+    // then
+    assertThat(first.getContent())
+        .extracting(Member::getUsername)
+        .containsExactly("keyset1", "keyset2", "keyset2");
+    assertThat(first.hasNext()).isTrue();
+
+    assertThat(second.getContent())
+        .extracting(Member::getUsername)
+        .containsExactly("keyset3", "keyset4");
+    assertThat(second.hasNext()).isFalse();
+    assertThat(second.getNextCursor()).isNull();
+  }
+
+  @Test
+  @Rollback
+  void testSaveAllBatched() throws Exception {
+    // given
+    int age = 2000;
+
+    Team teamA = new Team("teamA");
+    teamRepository.save(teamA);
+
+    List<Member> members = new ArrayList<>();
+
+    for (int i = 0; i < 250; i++) {
+      members.add(new Member("batch" + i, age, teamA));
+    }
+
+    // when
+    int saved;
+
+    try (QueryScope scope = QueryCounter.open("saveAllBatched")) {
+      saved = memberRepository.saveAllBatched(members, 100);
+
+      // then - 100 개씩 batch insert, sequence 는 allocationSize (50) 개마다 조회
+      assertThat(executions(scope, "insert into member ")).isEqualTo(3);
+      assertThat(executions(scope, "call next value for member_seq"))
+          .isLessThanOrEqualTo(250 / 50 + 1);
+    }
+
+    assertThat(saved).isEqualTo(250);
+    assertThat(em.contains(teamA)).isFalse(); // flush(), clear()
+
+    Page<Member> result = memberRepository.findByAge(age, PageRequest.of(0, 10));
+
+    assertThat(result.getTotalElements()).isEqualTo(250);
+  }
+
+  @Test
+  @Rollback
+  void testMultiGet() throws Exception {
+    // given - 250 명, 1 명은 Persistence Context 에 있음
+    List<Member> members = new ArrayList<>();
+
+    for (int i = 0; i < 250; i++) {
+      members.add(new Member("multi" + i, 3000));
+    }
+
+    memberRepository.saveAllBatched(members, 100); // flush(), clear()
+
+    List<Long> ids = members.stream().map(Member::getId).collect(Collectors.toList());
+    Collections.reverse(ids);
+
+    Member managed = memberRepository.findById(ids.get(0)).get();
+
+    List<Long> request = new ArrayList<>(ids);
+    request.add(ids.get(1)); // 중복
+    request.add(-1L); // 없는 id
+
+    // when
+    MultiGetResult<Member, Long> result;
+
+    try (QueryScope scope = QueryCounter.open("multiGet")) {
+      result = memberRepository.multiGet(request);
+
+      // then - 249 명을 100 개씩 IN query
+      assertThat(scope.getCount()).isEqualTo(3);
+    }
+
+    assertThat(result.getQueryCount()).isEqualTo(3);
+    assertThat(result.getFound()).extracting(Member::getId).containsExactlyElementsOf(ids);
+    assertThat(result.getFound().get(0)).isSameAs(managed);
+    assertThat(result.getMissingIds()).containsExactly(-1L);
+    assertThat(result.isComplete()).isFalse();
+  }
+
+  @Test
+  @Rollback
+  void testMultiGetPaddedInClause() throws Exception {
+    // given - 600 명
+    List<Member> members = new ArrayList<>();
+
+    for (int i = 0; i < 600; i++) {
+      members.add(new Member("padded" + i, 3001));
+    }
+
+    memberRepository.saveAllBatched(members, 100); // flush(), clear()
+
+    List<Long> ids = members.stream().map(Member::getId).collect(Collectors.toList());
+
+    // when - batch size 1000 이어도 padding (1000 -> 1024) 때문에 512 개씩 나눈다.
+    MultiGetResult<Member, Long> result = MultiGet.load(em, Member.class, ids, 1000);
+
+    // then
+    assertThat(result.getQueryCount()).isEqualTo(2);
+    assertThat(result.isComplete()).isTrue();
+  }
+
+  @Test
+  @Rollback
+  void testVersionStamp() throws Exception {
+    // given
+    Member member = memberRepository.save(new Member("stamp1", 4000));
+    em.flush();
+
+    VersionStamp created = memberRepository.findVersionStamp(member.getId()).get();
+    VersionStamp members = memberRepository.findMembersVersionStamp();
+
+    // when - dirty checking, bulk 연산
+    member.setAge(4001);
+    em.flush();
+
+    VersionStamp updated = memberRepository.findVersionStamp(member.getId()).get();
+
+    memberRepository.bulkAgePlus(4000);
+
+    VersionStamp bulkUpdated = memberRepository.findVersionStamp(member.getId()).get();
+
+    memberRepository.save(new Member("stamp2", 4000));
+    em.flush();
+
+    // then
+    assertThat(created.getLastModified()).isPositive();
+    assertThat(updated.getETag()).isNotEqualTo(created.getETag());
+    assertThat(bulkUpdated.getETag()).isNotEqualTo(updated.getETag());
+    assertThat(memberRepository.findVersionStamp(member.getId()).get().getETag())
+        .isEqualTo(bulkUpdated.getETag());
+    assertThat(memberRepository.findMembersVersionStamp().getETag())
+        .isNotEqualTo(members.getETag());
+    assertThat(memberRepository.findVersionStamp(-1L)).isEmpty();
+  }
+
+  @Test
+  @Rollback
+  void testCachedCount() throws Exception {
+    // given
+    int age = 3000;
+
+    memberRepository.save(new Member("count1", age));
+    memberRepository.save(new Member("count2", age));
+    memberRepository.save(new Member("count3", age));
+
+    PageRequest pageRequest = PageRequest.of(0, 2, Sort.by("username"));
+
+    Page<Member> first = memberRepository.findByAgeCounted(age, pageRequest, CountStrategy.CACHED);
+
+    // when
+    memberRepository.save(new Member("count4", age)); // count cache 무효화
+
+    Page<Member> second =
+        memberRepository.findByAgeCounted(age, pageRequest, CountStrategy.CACHED);
+
+    // then
+    assertThat(first.getTotalElements()).isEqualTo(3);
+    assertThat(first.getContent()).extracting(Member::getUsername).containsExactly("count1", "count2");
+    assertThat(second.getTotalElements()).isEqualTo(4);
+  }
+
+  @Test
+  @Rollback
+  void testStream() throws Exception {
+    // given
+    int age = 4000;
+
+    Member member1 = new Member("stream1", age);
+
+    memberRepository.save(member1);
+    memberRepository.save(new Member("stream2", age));
+    memberRepository.save(new Member("stream3", age));
+
+    em.flush();
+
+    // when
+    List<String> usernames;
+
+    try (Stream<Member> members = memberRepository.streamMemberCustom(2)) {
+      usernames =
+          members
+              .filter(member -> member.getAge() == age)
+              .map(Member::getUsername)
+              .collect(Collectors.toList());
+    }
+
+    // then
+    assertThat(usernames).containsExactly("stream1", "stream2", "stream3");
+    assertThat(em.contains(member1)).isFalse(); // fetchSize 만큼 읽을 때마다 clear()
+
+    try (Stream<Member> members = memberRepository.streamAll()) {
+      assertThat(members.filter(member -> member.getAge() == age).count()).isEqualTo(3);
+    }
+  }
+
+  @Test
+  @Rollback
+  void testNPlusOneDetection() throws Exception {
+    // given
+    int age = 5000;
+    List<Long> ids = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      Team team = teamRepository.save(new Team("nPlusOne" + i));
+      ids.add(memberRepository.save(new Member("nPlusOne" + i, age, team)).getId());
+    }
+
+    em.flush();
+    em.clear();
+
+    // when
+    QueryScope lazy;
+    QueryScope fetchJoin;
+
+    try (QueryScope scope = QueryCounter.open("lazy")) {
+      lazy = scope;
+      memberRepository.findAllById(ids).forEach(member -> member.getTeam().getName());
+    }
+
+    em.clear();
+
+    try (QueryScope scope = QueryCounter.open("fetchJoin")) {
+      fetchJoin = scope;
+      memberRepository.findMemberFetchJoin().forEach(member -> member.getTeam());
+    }
+
+    // then
+    assertThat(lazy.getCount()).isEqualTo(2); // member 1 + team 1 (default_batch_fetch_size)
+    assertThat(lazy.getRepeatedSelects(2)).isEmpty();
+    assertThat(fetchJoin.getCount()).isEqualTo(1);
+  }
+
+  @Test
+  @Rollback
+  @QueryBudget(max = 10)
+  void testQueryBudget() throws Exception {
+    // given
+    Team team = teamRepository.save(new Team("budget"));
+
+    for (int i = 0; i < 5; i++) {
+      memberRepository.save(new Member("budget" + i, 6000, team));
+    }
+
+    em.flush();
+    em.clear();
+
+    // when
+    // then - sequence, insert batch, fetch join 만 실행되어야 한다.
+    for (Member member : memberRepository.findMemberFetchJoin()) {
+      if (member.getTeam() != null) {
+        member.getTeam().getName();
+      }
+    }
+  }
+
   @Test
   void testPaginationExtractCount() throws Exception {
     // given
@@ -339,6 +647,33 @@ class MemberRepositoryTest {
     assertThat(result).isEqualTo(3);
   }
 
+  /**
+   * 2차 cache 는 commit 된 후에 저장되므로, Test Transaction 없이 실행한다.
+   */
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void testSecondLevelCache() throws Exception {
+    // given
+    int age = 9000;
+    Member member = memberRepository.save(new Member("cache1", age)); // commit 후 2차 cache 저장
+
+    try {
+      assertThat(emf.getCache().contains(Member.class, member.getId())).isTrue();
+
+      // when
+      new TransactionTemplate(transactionManager)
+          .executeWithoutResult(status -> memberRepository.bulkAgePlus(age));
+
+      // then
+      assertThat(emf.getCache().contains(Member.class, member.getId())).isFalse();
+
+      Member findMember = memberRepository.findById(member.getId()).get();
+      assertThat(findMember.getAge()).isEqualTo(age + 1);
+    } finally {
+      memberRepository.deleteById(member.getId());
+    }
+  }
+
   @Test
   void findMemberLazy() throws Exception {
     // given
@@ -400,6 +735,35 @@ class MemberRepositoryTest {
     // then
   }
 
+  @Test
+  @Rollback
+  void testReadOnlyQuery() throws Exception {
+    // given
+    Member member1 = memberRepository.save(new Member("readOnly1", 10));
+    Member member2 = memberRepository.save(new Member("readOnly2", 10));
+
+    em.flush();
+    em.clear();
+
+    Member managed = memberRepository.findById(member2.getId()).get();
+
+    // when
+    List<Member> members = memberRepository.findByNames(Arrays.asList("readOnly1", "readOnly2"));
+
+    for (Member member : members) {
+      member.setUsername(member.getUsername() + "!");
+    }
+
+    em.flush();
+    em.clear();
+
+    // then - 처음 읽은 entity 는 snapshot 이 없으므로 update 되지 않는다.
+    assertThat(memberRepository.findById(member1.getId()).get().getUsername())
+        .isEqualTo("readOnly1");
+    assertThat(memberRepository.findById(managed.getId()).get().getUsername())
+        .isEqualTo("readOnly2!");
+  }
+
   @Test
   void testLock() throws Exception {
     // given
@@ -522,6 +886,8 @@ class MemberRepositoryTest {
       System.out.println("usernameOnly = " + usernameOnly.getUsername());
     }
 
+    assertThat(result).extracting(UsernameOnly::getUsername).contains("member1 10");
+
     List<UsernameOnlyDto> result2 = memberRepository.findProjections2ByUsername("member1");
 
     for (UsernameOnlyDto usernameOnly : result2) {
@@ -545,6 +911,90 @@ class MemberRepositoryTest {
     // then
   }
 
+  @Test
+  @Rollback
+  void testNestedProjectionColumns() throws Exception {
+    // given
+    Team team = teamRepository.save(new Team("nestedTeam"));
+
+    memberRepository.save(new Member("nested1", 10, team));
+    memberRepository.save(new Member("nested2", 10));
+
+    em.flush();
+    em.clear();
+
+    // when
+    List<NestedClosedProjections> withTeam;
+    List<NestedClosedProjections> withoutTeam;
+
+    try (QueryScope scope = QueryCounter.open("nested")) {
+      withTeam =
+          memberRepository.findProjections3ByUsername("nested1", NestedClosedProjections.class);
+      withoutTeam =
+          memberRepository.findProjections3ByUsername("nested2", NestedClosedProjections.class);
+
+      assertThat(scope.getCount()).isEqualTo(2);
+    }
+
+    // then - entity 를 Persistence Context 에 올리지 않는다.
+    assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+
+    assertThat(withTeam).hasSize(1);
+    assertThat(withTeam.get(0).getUsername()).isEqualTo("nested1");
+    assertThat(withTeam.get(0).getTeam().getName()).isEqualTo("nestedTeam");
+
+    assertThat(withoutTeam).hasSize(1);
+    assertThat(withoutTeam.get(0).getTeam()).isNull();
+
+    assertThat(memberRepository.findProjections3ByUsername("nested1", UsernameOnlyDto.class))
+        .extracting(UsernameOnlyDto::getUsername)
+        .containsExactly("nested1");
+    assertThat(memberRepository.findProjections3ByUsername("nested1", Member.class))
+        .extracting(Member::getAge)
+        .containsExactly(10);
+  }
+
+  @Test
+  @Rollback
+  void testMemberDtoPage() throws Exception {
+    // given
+    Team team = teamRepository.save(new Team("dtoTeam"));
+
+    memberRepository.save(new Member("dto1", 10, team));
+    memberRepository.save(new Member("dto2", 10));
+
+    em.flush();
+    em.clear();
+
+    // 방금 저장한 member 가 앞에 오도록 id 역순
+    PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+    // when
+    Page<MemberDto> page = memberRepository.findMemberDtoPage(pageRequest, CountStrategy.EXACT);
+    Page<MemberDto> nativePage = memberRepository.findMemberDtoPageByNativeQuery(pageRequest);
+
+    // then - entity 를 Persistence Context 에 올리지 않는다.
+    assertThat(em.unwrap(Session.class).getStatistics().getEntityCount()).isZero();
+
+    for (Page<MemberDto> result : Arrays.asList(page, nativePage)) {
+      assertThat(result.getContent())
+          .extracting(MemberDto::getUsername, MemberDto::getTeamName)
+          .containsExactly(
+              tuple("dto2", null),
+              tuple("dto1", "dtoTeam"));
+      assertThat(result.getContent()).allSatisfy(dto -> assertThat(dto.getId()).isNotNull());
+      assertThat(result.getTotalElements()).isGreaterThanOrEqualTo(2);
+    }
+
+    // 매핑 계획은 정렬 조건 (query) 과 상관없이 (DTO type, column 목록) 별로 하나
+    assertThat(DtoMapper.of(MemberDto.class, Arrays.asList("id", "username", "teamName")))
+        .isSameAs(DtoMapper.of(MemberDto.class, Arrays.asList("id", "username", "teamName")));
+
+    // alias 가 생성자 parameter 이름과 다르면 순서대로 넣지 않고 실패한다.
+    assertThatThrownBy(() -> DtoMapper.of(MemberDto.class, Arrays.asList("id", "name", "team")))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
   @Test
   void testNativeQuery() throws Exception {
     // given
@@ -579,4 +1029,12 @@ class MemberRepositoryTest {
 
     // then
   }
+
+  /** prefix 로 시작하는 SQL 의 실행 횟수 - batch 는 executeBatch 1번을 1개로 센다. */
+  private static int executions(QueryScope scope, String prefix) {
+    return scope.getStatements().entrySet().stream()
+        .filter(statement -> statement.getKey().startsWith(prefix))
+        .mapToInt(Map.Entry::getValue)
+        .sum();
+  }
 }
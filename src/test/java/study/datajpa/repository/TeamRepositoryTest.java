@@ -0,0 +1,187 @@
+package study.datajpa.repository;
+
+import org.hibernate.Hibernate;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+import study.datajpa.monitoring.QueryCounter;
+import study.datajpa.monitoring.QueryScope;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Rollback
+class TeamRepositoryTest {
+
+  private static final List<String> NAMES = Arrays.asList("fetchA", "fetchB", "fetchC");
+
+  @Autowired private EntityManager em;
+
+  @Autowired private TeamRepository teamRepository;
+  @Autowired private MemberRepository memberRepository;
+
+  private final List<Long> teamIds = new ArrayList<>();
+  private final List<Long> memberIds = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    for (String name : NAMES) {
+      Team team = teamRepository.save(new Team(name));
+      teamIds.add(team.getId());
+
+      memberIds.add(memberRepository.save(new Member(name + "1", 10, team)).getId());
+      memberIds.add(memberRepository.save(new Member(name + "2", 10, team)).getId());
+    }
+
+    em.flush();
+    em.clear();
+  }
+
+  @Test
+  void testSubselectFetch() throws Exception {
+    // given
+    List<Team> teams;
+
+    // when
+    try (QueryScope scope = QueryCounter.open("subselect")) {
+      teams = teamRepository.findByNameIn(NAMES);
+
+      // then
+      assertThat(teams).hasSize(3);
+      assertThat(teams).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+      assertThat(scope.getCount()).isEqualTo(2); // team + members
+    }
+  }
+
+  @Test
+  void testSubselectFetchBatchSize() throws Exception {
+    // given
+    List<Team> teams;
+
+    // when
+    try (QueryScope scope = QueryCounter.open("subselectBatchSize")) {
+      teams = teamRepository.findByNameStartingWith("fetch");
+
+      // then
+      assertThat(teams).hasSize(3);
+      assertThat(teams).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+      assertThat(scope.getCount()).isEqualTo(3); // team + members (2 개, 1 개)
+    }
+  }
+
+  @Test
+  void testSubselectFetchProxy() throws Exception {
+    // given - 결과에 proxy 가 섞여 있다.
+    Team proxy = em.getReference(Team.class, teamIds.get(0));
+
+    // when
+    List<Team> teams = teamRepository.findByNameIn(NAMES);
+
+    // then
+    assertThat(teams).contains(proxy);
+    assertThat(teams)
+        .allSatisfy(team -> assertThat(Hibernate.isInitialized(team.getMembers())).isTrue());
+  }
+
+  @Test
+  void testSubselectFetchPage() throws Exception {
+    // given
+    PageRequest pageRequest = PageRequest.of(0, 100, Sort.by(Sort.Direction.DESC, "id"));
+
+    // when
+    Page<Team> page = teamRepository.findAllWithMembers(pageRequest);
+
+    // then
+    List<Team> ours =
+        page.getContent().stream()
+            .filter(team -> teamIds.contains(team.getId()))
+            .collect(Collectors.toList());
+
+    assertThat(ours).hasSize(3);
+    assertThat(page.getContent())
+        .allSatisfy(
+            team ->
+                assertThat(
+                        em.getEntityManagerFactory()
+                            .getPersistenceUnitUtil()
+                            .isLoaded(team, "members"))
+                    .isTrue());
+    assertThat(ours).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+  }
+
+  @Test
+  void testBatchFetch() throws Exception {
+    // given
+    List<Team> teams = teamRepository.findAllById(teamIds);
+    List<Member> members = memberRepository.findAllById(memberIds);
+
+    // when
+    // then - default_batch_fetch_size 만큼 IN 절로 같이 초기화
+    try (QueryScope scope = QueryCounter.open("members")) {
+      teams.forEach(team -> team.getMembers().size());
+      assertThat(scope.getCount()).isEqualTo(1);
+    }
+
+    em.clear();
+    members = memberRepository.findAllById(memberIds);
+
+    try (QueryScope scope = QueryCounter.open("team")) {
+      members.forEach(member -> member.getTeam().getName());
+      assertThat(scope.getCount()).isEqualTo(1);
+    }
+  }
+
+  @Test
+  void testTwoPhasePaging() throws Exception {
+    // given
+    PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+    // when
+    Page<Team> page;
+
+    try (QueryScope scope = QueryCounter.open("twoPhase")) {
+      page = teamRepository.findPageFetchMembers(pageRequest);
+
+      assertThat(scope.getCount()).isEqualTo(3); // id + fetch join + count
+    }
+
+    em.clear();
+
+    // then
+    assertThat(page.getContent()).extracting(Team::getName).containsExactly("fetchC", "fetchB");
+    assertThat(page.getContent()).allSatisfy(team -> assertThat(team.getMembers()).hasSize(2));
+    assertThat(page.getTotalElements()).isGreaterThanOrEqualTo(3);
+  }
+
+  @Test
+  void testToOneFetchJoinPaging() throws Exception {
+    // given
+    PageRequest pageRequest = PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "id"));
+
+    // when
+    Page<Member> page = memberRepository.findMemberFetchJoin(pageRequest);
+    em.clear();
+
+    // then
+    assertThat(page.getContent())
+        .extracting(Member::getUsername)
+        .containsExactly("fetchC2", "fetchC1");
+    assertThat(page.getContent())
+        .allSatisfy(member -> assertThat(member.getTeam().getName()).isEqualTo("fetchC"));
+  }
+}
@@ -0,0 +1,93 @@
+package study.datajpa.repository.async;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** 비동기 query 는 다른 Transaction 에서 실행되므로 Test Transaction 없이 실행한다. */
+@SpringBootTest
+class AsyncMemberRepositoryTest {
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private AsyncMemberRepository asyncMemberRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void findByIdInJdbcThread() throws Exception {
+    // given
+    Long memberId = memberRepository.save(new Member("async1", 10)).getId();
+
+    try {
+      // when
+      CompletableFuture<Optional<Member>> member = asyncMemberRepository.findById(memberId);
+      CompletableFuture<String> thread =
+          asyncMemberRepository.readOnly(repository -> Thread.currentThread().getName());
+
+      // then
+      assertThat(member.get().map(Member::getUsername)).hasValue("async1");
+      assertThat(thread.get()).startsWith("jdbc-");
+    } finally {
+      memberRepository.deleteById(memberId);
+    }
+  }
+
+  @Test
+  void rejectWhenSaturated() throws Exception {
+    // given - thread 1 개, 대기열 1 개
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(1);
+    executor.initialize();
+
+    AsyncMemberRepository saturated =
+        new AsyncMemberRepository(memberRepository, transactionManager, executor);
+
+    CountDownLatch release = new CountDownLatch(1);
+
+    try {
+      CompletableFuture<Boolean> running = saturated.readOnly(repository -> await(release));
+      CompletableFuture<Boolean> queued = saturated.readOnly(repository -> await(release));
+
+      // when
+      CompletableFuture<Long> rejected = saturated.readOnly(MemberRepository::count);
+
+      // then
+      assertThat(rejected).isCompletedExceptionally();
+      assertThatThrownBy(rejected::get)
+          .isInstanceOf(ExecutionException.class)
+          .hasCauseInstanceOf(RejectedExecutionException.class);
+
+      release.countDown();
+
+      assertThat(running.get()).isTrue();
+      assertThat(queued.get()).isTrue();
+    } finally {
+      release.countDown();
+      saturated.shutdown();
+    }
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package study.datajpa.repository.bulk;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+@Rollback
+class MemberBulkOperationsTest {
+
+  @Autowired private EntityManager em;
+  @Autowired private EntityManagerFactory emf;
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private MemberBulkOperations bulkOperations;
+
+  @Test
+  void bulkAgePlusRefresh() throws Exception {
+    // given
+    int age = 70000;
+    List<Member> members = saveMembers("bulkRefresh", age, 5);
+    Member other = memberRepository.save(new Member("bulkOther", 10));
+
+    em.flush();
+
+    // when
+    BulkResult result = bulkOperations.bulkAgePlus(age, 2, ContextSync.REFRESH);
+
+    // then
+    assertThat(result.getChunks()).containsExactly(2, 2, 1);
+    assertThat(result.getTotal()).isEqualTo(5);
+
+    assertThat(members)
+        .allSatisfy(
+            member -> {
+              assertThat(em.contains(member)).isTrue();
+              assertThat(member.getAge()).isEqualTo(age + 1);
+            });
+    assertThat(em.contains(other)).isTrue(); // Persistence Context 전체를 비우지 않는다.
+  }
+
+  @Test
+  void bulkAgePlusDetach() throws Exception {
+    // given
+    int age = 71000;
+    List<Member> members = saveMembers("bulkDetach", age, 3);
+
+    // when - flush 하지 않은 변경도 반영된다.
+    BulkResult result = bulkOperations.bulkAgePlus(age, 10, ContextSync.DETACH);
+
+    // then
+    assertThat(result.getChunks()).containsExactly(3);
+    assertThat(members).allSatisfy(member -> assertThat(em.contains(member)).isFalse());
+    assertThat(memberRepository.findById(members.get(0).getId()).get().getAge())
+        .isEqualTo(age + 1);
+  }
+
+  @Test
+  void bulkDelete() throws Exception {
+    // given
+    int age = 72000;
+    List<Member> members = saveMembers("bulkDelete", age, 3);
+
+    em.flush();
+
+    // when
+    BulkResult result = bulkOperations.bulkDeleteByAgeGreaterThanEqual(age, 2);
+
+    // then
+    assertThat(result.getChunks()).containsExactly(2, 1);
+    assertThat(members).allSatisfy(member -> assertThat(em.contains(member)).isFalse());
+    assertThat(memberRepository.findById(members.get(0).getId())).isEmpty();
+  }
+
+  /** chunk 마다 commit 되어야 하므로 Test Transaction 없이 실행한다. */
+  @Test
+  @Transactional(propagation = Propagation.NOT_SUPPORTED)
+  void evictSecondLevelCache() throws Exception {
+    // given
+    int age = 73000;
+    List<Member> members = saveMembers("bulkCache", age, 3);
+    Member other = memberRepository.save(new Member("bulkCacheOther", 10));
+
+    try {
+      members.forEach(member -> memberRepository.findById(member.getId()));
+      memberRepository.findById(other.getId());
+
+      assertThat(emf.getCache().contains(Member.class, members.get(0).getId())).isTrue();
+
+      // when
+      BulkResult result = bulkOperations.bulkAgePlus(age, 2, ContextSync.DETACH);
+
+      // then
+      assertThat(result.getChunks()).containsExactly(2, 1);
+      for (Member member : members) {
+        assertThat(emf.getCache().contains(Member.class, member.getId())).isFalse();
+      }
+      assertThat(emf.getCache().contains(Member.class, other.getId())).isTrue();
+      assertThat(memberRepository.findById(members.get(0).getId()).get().getAge())
+          .isEqualTo(age + 1);
+    } finally {
+      bulkOperations.bulkDeleteByAgeGreaterThanEqual(age, 100);
+      memberRepository.deleteById(other.getId());
+    }
+  }
+
+  private List<Member> saveMembers(String prefix, int age, int count) {
+    List<Member> members = new ArrayList<>();
+
+    for (int i = 0; i < count; i++) {
+      members.add(memberRepository.save(new Member(prefix + i, age)));
+    }
+
+    return members;
+  }
+}
@@ -0,0 +1,199 @@
+package study.datajpa.repository.coalesce;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** 합쳐진 조회는 다른 thread 에서 실행되므로 Test Transaction 없이 실행한다. */
+@SpringBootTest
+class CoalescingMemberRepositoryTest {
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void shareImmutableResult() throws Exception {
+    // given - 처음 들어온 조회가 끝나지 않도록 잡아 둔다.
+    Member member = memberRepository.save(new Member("coalesce1", 10));
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    MemberRepository blocking =
+        (MemberRepository)
+            Proxy.newProxyInstance(
+                MemberRepository.class.getClassLoader(),
+                new Class<?>[] {MemberRepository.class},
+                (proxy, method, args) -> {
+                  if (method.getName().equals("findById")) {
+                    started.countDown();
+                    await(release);
+                  }
+
+                  return method.invoke(memberRepository, args);
+                });
+
+    CoalescingMemberRepository coalescing =
+        new CoalescingMemberRepository(blocking, transactionManager);
+    MeterRegistry registry = new SimpleMeterRegistry();
+    coalescing.bindTo(registry);
+
+    int followers = 4;
+    ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+
+    try {
+      Future<Optional<MemberDto>> leader =
+          executor.submit(() -> coalescing.findById(member.getId()));
+
+      started.await(10, TimeUnit.SECONDS);
+
+      // when
+      List<Future<Optional<MemberDto>>> results = new ArrayList<>();
+
+      for (int i = 0; i < followers; i++) {
+        results.add(executor.submit(() -> coalescing.findById(member.getId())));
+      }
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+      while (calls(registry, "coalesced") < followers && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+
+      release.countDown();
+
+      // then - 모두 같은 MemberDto (불변) 를 받는다.
+      MemberDto dto = leader.get().orElseThrow(IllegalStateException::new);
+
+      assertThat(dto.getUsername()).isEqualTo("coalesce1");
+
+      for (Future<Optional<MemberDto>> result : results) {
+        assertThat(result.get()).containsSame(dto);
+      }
+
+      assertThat(calls(registry, "executed")).isEqualTo(1);
+      assertThat(calls(registry, "coalesced")).isEqualTo(followers);
+
+      List<MemberDto> byUsername = coalescing.findByUsername("coalesce1");
+
+      assertThat(byUsername).extracting(MemberDto::getId).containsExactly(member.getId());
+      assertThatThrownBy(() -> byUsername.add(dto))
+          .isInstanceOf(UnsupportedOperationException.class);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+      memberRepository.delete(member);
+    }
+  }
+
+  @Test
+  void bypassInWriteTransaction() throws Exception {
+    // given
+    CoalescingMemberRepository coalescing =
+        new CoalescingMemberRepository(memberRepository, transactionManager);
+    MeterRegistry registry = new SimpleMeterRegistry();
+    coalescing.bindTo(registry);
+
+    TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+    // when - commit 전 데이터
+    Optional<MemberDto> found =
+        transaction.execute(
+            status -> {
+              status.setRollbackOnly();
+              Member member = memberRepository.save(new Member("coalesceWrite", 10));
+              return coalescing.findById(member.getId());
+            });
+
+    // then - 합치지 않고 같은 Transaction 에서 조회한다.
+    assertThat(found).map(MemberDto::getUsername).hasValue("coalesceWrite");
+    assertThat(calls(registry, "executed")).isZero();
+    assertThat(calls(registry, "coalesced")).isZero();
+  }
+
+  @Test
+  void failWaitingFollowers() throws Exception {
+    // given - 처음 들어온 조회가 실패한다.
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    MemberRepository failing =
+        (MemberRepository)
+            Proxy.newProxyInstance(
+                MemberRepository.class.getClassLoader(),
+                new Class<?>[] {MemberRepository.class},
+                (proxy, method, args) -> {
+                  started.countDown();
+                  await(release);
+                  throw new IllegalStateException("db down");
+                });
+
+    CoalescingMemberRepository coalescing =
+        new CoalescingMemberRepository(failing, transactionManager);
+    MeterRegistry registry = new SimpleMeterRegistry();
+    coalescing.bindTo(registry);
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+
+    try {
+      Future<Optional<MemberDto>> leader = executor.submit(() -> coalescing.findById(1L));
+      started.await(10, TimeUnit.SECONDS);
+
+      // when
+      Future<Optional<MemberDto>> follower = executor.submit(() -> coalescing.findById(1L));
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+      while (calls(registry, "coalesced") < 1 && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+
+      release.countDown();
+
+      // then - 기다리던 요청도 같은 예외로 실패한다.
+      assertThatThrownBy(leader::get).hasRootCauseInstanceOf(IllegalStateException.class);
+      assertThatThrownBy(follower::get).hasRootCauseInstanceOf(IllegalStateException.class);
+      assertThat(calls(registry, "coalesced")).isEqualTo(1);
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  private static double calls(MeterRegistry registry, String result) {
+    return registry
+        .get("repository.coalesce.calls")
+        .tag("method", "findById")
+        .tag("result", result)
+        .functionCounter()
+        .count();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
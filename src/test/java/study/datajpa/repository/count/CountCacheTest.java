@@ -0,0 +1,81 @@
+package study.datajpa.repository.count;
+
+import org.junit.jupiter.api.Test;
+import study.datajpa.entity.Member;
+import study.datajpa.entity.Team;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CountCacheTest {
+
+  @Test
+  void cacheByQueryAndParameters() throws Exception {
+    // given
+    CountCache countCache = new CountCache(Duration.ofMinutes(1), 100);
+
+    CountQuery age10 =
+        CountQuery.of(Member.class, "select count(m) from Member m where m.age = :age")
+            .param("age", 10);
+    CountQuery age20 =
+        CountQuery.of(Member.class, "select count(m) from Member m where m.age = :age")
+            .param("age", 20);
+
+    // when
+    countCache.put(age10, countCache.generation(Member.class), 5);
+
+    // then
+    assertThat(countCache.get(age10)).hasValue(5);
+    assertThat(countCache.get(age20)).isEmpty();
+  }
+
+  @Test
+  void invalidateByEntity() throws Exception {
+    // given
+    CountCache countCache = new CountCache(Duration.ofMinutes(1), 100);
+
+    CountQuery member = CountQuery.of(Member.class, "select count(m) from Member m");
+    CountQuery team = CountQuery.of(Team.class, "select count(t) from Team t");
+
+    countCache.put(member, countCache.generation(Member.class), 5);
+    countCache.put(team, countCache.generation(Team.class), 2);
+
+    // when
+    countCache.invalidate(Member.class);
+
+    // then
+    assertThat(countCache.get(member)).isEmpty();
+    assertThat(countCache.get(team)).hasValue(2);
+  }
+
+  @Test
+  void ignoreCountStartedBeforeInvalidation() throws Exception {
+    // given
+    CountCache countCache = new CountCache(Duration.ofMinutes(1), 100);
+    CountQuery member = CountQuery.of(Member.class, "select count(m) from Member m");
+
+    long generation = countCache.generation(Member.class);
+
+    // when
+    countCache.invalidate(Member.class); // count 실행 중에 저장됨
+    countCache.put(member, generation, 5);
+
+    // then
+    assertThat(countCache.get(member)).isEmpty();
+  }
+
+  @Test
+  void expire() throws Exception {
+    // given
+    CountCache countCache = new CountCache(Duration.ofMillis(1), 100);
+    CountQuery member = CountQuery.of(Member.class, "select count(m) from Member m");
+
+    // when
+    countCache.put(member, countCache.generation(Member.class), 5);
+    Thread.sleep(10);
+
+    // then
+    assertThat(countCache.get(member)).isEmpty();
+  }
+}
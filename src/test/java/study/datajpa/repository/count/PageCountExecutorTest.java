@@ -0,0 +1,52 @@
+package study.datajpa.repository.count;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.Collections;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class PageCountExecutorTest {
+
+  @Autowired private PageCountExecutor pageCountExecutor;
+  @Autowired private MemberRepository memberRepository;
+
+  @Test
+  void doNotCacheApproximateCount() throws Exception {
+    // given
+    int age = 5100;
+
+    Member member = memberRepository.save(new Member("approximate1", age));
+    memberRepository.saveAndFlush(new Member("approximate2", age));
+
+    CountQuery countQuery =
+        CountQuery.of(Member.class, "select count(m) from Member m where m.age = :age")
+            .param("age", age)
+            .approximate("select 1000");
+    PageRequest pageRequest = PageRequest.of(0, 1);
+
+    // when
+    Page<Member> approximate =
+        pageCountExecutor.getPage(
+            pageRequest,
+            countQuery,
+            CountStrategy.APPROXIMATE,
+            () -> Collections.singletonList(member));
+    Page<Member> cached =
+        pageCountExecutor.getPage(
+            pageRequest, countQuery, CountStrategy.CACHED, () -> Collections.singletonList(member));
+
+    // then
+    assertThat(approximate.getTotalElements()).isEqualTo(1000);
+    assertThat(cached.getTotalElements()).isEqualTo(2);
+  }
+}
@@ -0,0 +1,36 @@
+package study.datajpa.repository.keyset;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberKeysetTest {
+
+  @Test
+  void encodeAndDecode() throws Exception {
+    // given
+    MemberKeyset keyset = new MemberKeyset("member:1 한글", 15L);
+
+    // when
+    MemberKeyset decoded = MemberKeyset.decode(keyset.encode());
+
+    // then
+    assertThat(decoded.getUsername()).isEqualTo("member:1 한글");
+    assertThat(decoded.getId()).isEqualTo(15L);
+  }
+
+  @Test
+  void decodeFirstPage() throws Exception {
+    assertThat(MemberKeyset.decode(null)).isNull();
+    assertThat(MemberKeyset.decode("")).isNull();
+  }
+
+  @Test
+  void decodeInvalidCursor() throws Exception {
+    assertThatThrownBy(() -> MemberKeyset.decode("!!!"))
+        .isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> MemberKeyset.decode("YWJj")) // abc
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+}
@@ -0,0 +1,160 @@
+package study.datajpa.repository.slice;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Slice;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.dto.MemberDto;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+import study.datajpa.repository.async.AsyncMemberRepository;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** 미리 조회는 다른 thread (Transaction) 에서 실행되므로 Test Transaction 없이 실행한다. */
+@SpringBootTest
+class MemberSlicePrefetcherTest {
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private AsyncMemberRepository asyncMemberRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void prefetchNextSlice() throws Exception {
+    // given - 5 명, 2 명씩
+    int age = 5000;
+    List<Member> members = new ArrayList<>();
+
+    for (int i = 0; i < 5; i++) {
+      members.add(memberRepository.save(new Member("slice" + i, age)));
+    }
+
+    // 미리 조회가 끝날 때까지 기다린다. - 기본값 (50ms) 이면 느린 환경에서 직접 조회로 넘어갈 수 있다.
+    SlicePrefetchProperties properties = new SlicePrefetchProperties();
+    properties.setMaxWait(Duration.ofSeconds(10));
+
+    MemberSlicePrefetcher prefetcher =
+        new MemberSlicePrefetcher(memberRepository, asyncMemberRepository, properties);
+
+    try {
+      // when
+      MemberSliceToken first = MemberSliceToken.first(age, 2);
+
+      Slice<MemberDto> slice1 = prefetcher.findSlice("client1", first);
+      Slice<MemberDto> slice2 = prefetcher.findSlice("client1", first.next());
+      Slice<MemberDto> slice3 = prefetcher.findSlice("client1", first.next().next());
+
+      // then - 두 번째, 세 번째 slice 는 미리 조회한 결과
+      assertThat(slice1.getContent())
+          .extracting(MemberDto::getUsername)
+          .containsExactly("slice0", "slice1");
+      assertThat(slice2.getContent())
+          .extracting(MemberDto::getUsername)
+          .containsExactly("slice2", "slice3");
+      assertThat(slice3.getContent()).extracting(MemberDto::getUsername).containsExactly("slice4");
+
+      assertThat(slice1.hasNext()).isTrue();
+      assertThat(slice3.hasNext()).isFalse();
+      assertThat(prefetcher.getHits()).isEqualTo(2);
+      assertThat(prefetcher.getTimeouts()).isZero();
+    } finally {
+      memberRepository.deleteAll(members);
+    }
+  }
+
+  @Test
+  void doNotWaitForQueuedPrefetch() throws Exception {
+    // given - 비동기 pool 의 thread 가 다른 작업에 잡혀 있어서, 미리 조회가 대기열에 남는다.
+    int age = 5001;
+    List<Member> members = new ArrayList<>();
+
+    for (int i = 0; i < 3; i++) {
+      members.add(memberRepository.save(new Member("queued" + i, age)));
+    }
+
+    ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+    executor.setCorePoolSize(1);
+    executor.setMaxPoolSize(1);
+    executor.setQueueCapacity(10);
+    executor.initialize();
+
+    AsyncMemberRepository busy =
+        new AsyncMemberRepository(memberRepository, transactionManager, executor);
+
+    SlicePrefetchProperties properties = new SlicePrefetchProperties();
+    properties.setMaxWait(Duration.ofMillis(10));
+
+    MemberSlicePrefetcher prefetcher =
+        new MemberSlicePrefetcher(memberRepository, busy, properties);
+
+    CountDownLatch release = new CountDownLatch(1);
+
+    try {
+      busy.readOnly(repository -> await(release));
+
+      MemberSliceToken first = MemberSliceToken.first(age, 2);
+      prefetcher.findSlice("client1", first);
+
+      // when
+      Slice<MemberDto> slice2 = prefetcher.findSlice("client1", first.next());
+
+      // then - 기다리지 않고 직접 조회한다.
+      assertThat(slice2.getContent()).extracting(MemberDto::getUsername).containsExactly("queued2");
+      assertThat(prefetcher.getTimeouts()).isEqualTo(1);
+      assertThat(prefetcher.getHits()).isZero();
+    } finally {
+      release.countDown();
+      busy.shutdown();
+      memberRepository.deleteAll(members);
+    }
+  }
+
+  @Test
+  void tokenRoundTrip() throws Exception {
+    // given
+    MemberSliceToken token = new MemberSliceToken(10, 3, 20);
+
+    // when
+    MemberSliceToken decoded = MemberSliceToken.decode(token.encode());
+
+    // then
+    assertThat(decoded).isEqualTo(token);
+    assertThat(decoded.next().getPage()).isEqualTo(4);
+  }
+
+  @Test
+  void rejectOffsetOverflow() throws Exception {
+    // given
+    MemberSliceToken last = new MemberSliceToken(10, Integer.MAX_VALUE / 2, 2);
+    String crafted =
+        Base64.getUrlEncoder()
+            .withoutPadding()
+            .encodeToString("10:1073741824:2".getBytes(StandardCharsets.UTF_8));
+
+    // when
+    // then
+    assertThatThrownBy(last::next).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> MemberSliceToken.decode(crafted))
+        .isInstanceOf(IllegalArgumentException.class);
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
@@ -0,0 +1,112 @@
+package study.datajpa.repository.support;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import study.datajpa.entity.Member;
+import study.datajpa.repository.MemberRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/** 여러 Transaction 이 동시에 commit 해야 하므로 Test Transaction 없이 실행한다. */
+@SpringBootTest
+class OptimisticRetryExecutorTest {
+
+  @Autowired private MemberRepository memberRepository;
+  @Autowired private PlatformTransactionManager transactionManager;
+
+  @Test
+  void concurrentUpdate() throws Exception {
+    // given
+    RetryProperties properties = new RetryProperties();
+    properties.setMaxAttempts(100);
+
+    OptimisticRetryExecutor retryExecutor =
+        new OptimisticRetryExecutor(transactionManager, properties);
+
+    MeterRegistry registry = new SimpleMeterRegistry();
+    retryExecutor.bindTo(registry);
+
+    Long memberId = memberRepository.save(new Member("optimistic1", 0)).getId();
+
+    int threads = 4;
+    int updates = 25;
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    try {
+      // when
+      List<Future<?>> futures = new ArrayList<>();
+
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  for (int i = 0; i < updates; i++) {
+                    retryExecutor.execute(
+                        () -> {
+                          Member member = memberRepository.findById(memberId).get();
+                          member.setAge(member.getAge() + 1); // Dirty Checking
+                        });
+                  }
+                }));
+      }
+
+      for (Future<?> future : futures) {
+        future.get();
+      }
+
+      // then
+      Member result = memberRepository.findById(memberId).get();
+
+      assertThat(result.getAge()).isEqualTo(threads * updates);
+      assertThat(result.getVersion()).isEqualTo((long) threads * updates);
+      assertThat(retryExecutor.getExecutions()).isEqualTo(threads * updates);
+      assertThat(retryExecutor.getAttempts())
+          .isEqualTo(retryExecutor.getExecutions() + retryExecutor.getConflicts());
+      assertThat(retryExecutor.getExhausted()).isZero();
+
+      assertThat(count(registry, "execution")).isEqualTo(threads * updates);
+      assertThat(count(registry, "conflict")).isEqualTo(retryExecutor.getConflicts());
+      assertThat(registry.get("repository.retry.conflict.rate").gauge().value())
+          .isEqualTo(retryExecutor.getConflictRate());
+    } finally {
+      executor.shutdown();
+      memberRepository.deleteById(memberId);
+    }
+  }
+
+  @Test
+  void doNotRetryOtherException() throws Exception {
+    // given
+    OptimisticRetryExecutor retryExecutor =
+        new OptimisticRetryExecutor(transactionManager, new RetryProperties());
+
+    // when
+    assertThatThrownBy(
+            () ->
+                retryExecutor.execute(
+                    () -> {
+                      throw new IllegalStateException("not a conflict");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    // then
+    assertThat(retryExecutor.getAttempts()).isEqualTo(1);
+    assertThat(retryExecutor.getConflicts()).isZero();
+  }
+
+  private static double count(MeterRegistry registry, String result) {
+    return registry.get("repository.retry.calls").tag("result", result).functionCounter().count();
+  }
+}
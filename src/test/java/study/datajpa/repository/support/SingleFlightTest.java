@@ -0,0 +1,128 @@
+package study.datajpa.repository.support;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SingleFlightTest {
+
+  @Test
+  void coalesceConcurrentCalls() throws Exception {
+    // given
+    SingleFlight<Long, String> flight = new SingleFlight<>();
+    AtomicInteger loads = new AtomicInteger();
+
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+
+    int followers = 8;
+    ExecutorService executor = Executors.newFixedThreadPool(followers + 1);
+
+    try {
+      Future<String> leader =
+          executor.submit(
+              () ->
+                  flight.execute(
+                      1L,
+                      () -> {
+                        loads.incrementAndGet();
+                        started.countDown();
+                        await(release);
+                        return "member1";
+                      }));
+
+      started.await(10, TimeUnit.SECONDS);
+
+      // when - leader 가 실행 중일 때 같은 key 로 조회
+      List<Future<String>> results = new ArrayList<>();
+
+      for (int i = 0; i < followers; i++) {
+        results.add(
+            executor.submit(
+                () ->
+                    flight.execute(
+                        1L,
+                        () -> {
+                          loads.incrementAndGet();
+                          return "other";
+                        })));
+      }
+
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+      while (flight.getCoalesced() < followers && System.nanoTime() < deadline) {
+        Thread.sleep(1);
+      }
+
+      release.countDown();
+
+      // then
+      assertThat(leader.get()).isEqualTo("member1");
+
+      for (Future<String> result : results) {
+        assertThat(result.get()).isEqualTo("member1");
+      }
+
+      assertThat(loads.get()).isEqualTo(1);
+      assertThat(flight.getExecuted()).isEqualTo(1);
+      assertThat(flight.getCoalesced()).isEqualTo(followers);
+      assertThat(flight.getInFlight()).isZero();
+    } finally {
+      release.countDown();
+      executor.shutdown();
+    }
+  }
+
+  @Test
+  void doNotCacheAfterCompletion() throws Exception {
+    // given
+    SingleFlight<Long, Integer> flight = new SingleFlight<>();
+    AtomicInteger loads = new AtomicInteger();
+
+    // when
+    flight.execute(1L, loads::incrementAndGet);
+    flight.execute(1L, loads::incrementAndGet);
+
+    // then
+    assertThat(loads.get()).isEqualTo(2);
+    assertThat(flight.getCoalesced()).isZero();
+  }
+
+  @Test
+  void propagateFailure() throws Exception {
+    // given
+    SingleFlight<Long, String> flight = new SingleFlight<>();
+
+    // when
+    assertThatThrownBy(
+            () ->
+                flight.execute(
+                    1L,
+                    () -> {
+                      throw new IllegalStateException("db down");
+                    }))
+        .isInstanceOf(IllegalStateException.class);
+
+    // then - 실패한 결과는 남지 않는다.
+    assertThat(flight.execute(1L, () -> "member1")).isEqualTo("member1");
+    assertThat(flight.getInFlight()).isZero();
+  }
+
+  private static void await(CountDownLatch latch) {
+    try {
+      latch.await(10, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+}